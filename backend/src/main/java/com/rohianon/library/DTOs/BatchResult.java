@@ -0,0 +1,27 @@
+package com.rohianon.library.DTOs;
+
+import java.util.Arrays;
+import java.util.List;
+
+public record BatchResult(int received, int created, int failed, List<ItemResult> items) {
+
+    public record ItemResult(int index, Long id, List<String> errors) {
+
+        public static ItemResult created(int index, Long id) {
+            return new ItemResult(index, id, List.of());
+        }
+
+        public static ItemResult failed(int index, List<String> errors) {
+            return new ItemResult(index, null, errors);
+        }
+
+        public boolean isCreated() {
+            return id != null;
+        }
+    }
+
+    public static BatchResult of(ItemResult[] items) {
+        int created = (int) Arrays.stream(items).filter(ItemResult::isCreated).count();
+        return new BatchResult(items.length, created, items.length - created, List.of(items));
+    }
+}
@@ -0,0 +1,21 @@
+package com.rohianon.library.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import com.rohianon.library.event.BookChangedEvent.ChangeType;
+
+/**
+ * One committed change as sent on the change feed. Created and updated books
+ * carry the book as stored; deletes only carry the id.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookChange(ChangeType type, Long id, BookResponse book) {
+
+    public static BookChange from(BookChangedEvent event) {
+        Book book = event.book();
+        return new BookChange(event.type(), event.id(), book == null ? null
+                : new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+                        book.getPublishedDate(), book.getVersion()));
+    }
+}
@@ -0,0 +1,20 @@
+package com.rohianon.library.DTOs;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Selects books to delete either by id or by a filter; filter fields that are
+ * null do not restrict the match, and a book must satisfy all the others.
+ */
+public record BookDeleteRequest(
+        List<Long> ids,
+        String author,
+        LocalDate publishedFrom,
+        LocalDate publishedTo,
+        String isbnPrefix) {
+
+    public boolean hasFilter() {
+        return author != null || publishedFrom != null || publishedTo != null || isbnPrefix != null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.rohianon.library.DTOs;
+
+import com.rohianon.library.exception.InvalidRequestException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * The optional columns of a {@link BookResponse}, as named by {@code ?fields=}.
+ * The id and version are always selected.
+ */
+public enum BookField {
+
+    TITLE("title"),
+    AUTHOR("author"),
+    ISBN("isbn"),
+    PUBLISHED_DATE("publishedDate");
+
+    public static final Set<BookField> ALL = Collections.unmodifiableSet(EnumSet.allOf(BookField.class));
+
+    private final String property;
+
+    BookField(String property) {
+        this.property = property;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    /**
+     * Parses a comma-separated list such as {@code title,author}; no list selects
+     * every field.
+     */
+    public static Set<BookField> fromParameter(String value) {
+        if (value == null || value.isBlank()) {
+            return ALL;
+        }
+        Set<BookField> fields = EnumSet.noneOf(BookField.class);
+        for (String name : value.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.equalsIgnoreCase("id") || trimmed.equalsIgnoreCase("version")) {
+                continue;
+            }
+            fields.add(Arrays.stream(values())
+                    .filter(field -> field.property.toLowerCase(Locale.ROOT).equals(trimmed.toLowerCase(Locale.ROOT)))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidRequestException("Unknown field '" + trimmed + "', expected any of: "
+                            + Arrays.stream(values()).map(BookField::property).collect(Collectors.joining(", ")))));
+        }
+        return Collections.unmodifiableSet(fields);
+    }
+}
@@ -0,0 +1,14 @@
+package com.rohianon.library.DTOs;
+
+import java.time.LocalDate;
+
+/**
+ * Narrows a book query; fields that are null do not restrict the match, and a
+ * book must satisfy all the others.
+ */
+public record BookFilter(
+        String author,
+        LocalDate publishedFrom,
+        LocalDate publishedTo,
+        String isbnPrefix) {
+}
@@ -0,0 +1,29 @@
+package com.rohianon.library.DTOs;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+
+import java.time.LocalDate;
+
+/**
+ * Sparse set of book fields; a null or absent field is left unchanged.
+ */
+public record BookPatch(
+        @Pattern(regexp = "(?s).*\\S.*", message = "Title must not be blank")
+        @Size(max = 255, message = "Title must not exceed 255 characters")
+        String title,
+
+        @Pattern(regexp = "(?s).*\\S.*", message = "Author must not be blank")
+        @Size(max = 255, message = "Author must not exceed 255 characters")
+        String author,
+
+        @Pattern(regexp = "(?s).*\\S.*", message = "ISBN must not be blank")
+        @Size(max = 20, message = "ISBN must not exceed 20 characters")
+        String isbn,
+
+        LocalDate publishedDate) {
+
+    public boolean isEmpty() {
+        return title == null && author == null && isbn == null && publishedDate == null;
+    }
+}
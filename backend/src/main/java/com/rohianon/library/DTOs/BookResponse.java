@@ -1,4 +1,14 @@
 package com.rohianon.library.DTOs;
 
-public class BookResponse {
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+
+/**
+ * Read-only view of a book, built straight from the query by a constructor
+ * projection rather than from a managed entity. Fields that were not selected
+ * are null and left out of the JSON.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BookResponse(Long id, String title, String author, String isbn, LocalDate publishedDate, Long version) {
 }
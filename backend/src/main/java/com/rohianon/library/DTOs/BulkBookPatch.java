@@ -0,0 +1,16 @@
+package com.rohianon.library.DTOs;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public record BulkBookPatch(
+        @NotEmpty(message = "ids must not be empty")
+        List<@NotNull Long> ids,
+
+        @NotNull(message = "changes are required")
+        @Valid
+        BookPatch changes) {
+}
@@ -0,0 +1,4 @@
+package com.rohianon.library.DTOs;
+
+public record BulkResult(long affected) {
+}
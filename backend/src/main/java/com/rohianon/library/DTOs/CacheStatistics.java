@@ -0,0 +1,27 @@
+package com.rohianon.library.DTOs;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+public record CacheStatistics(
+        String name,
+        long size,
+        long hitCount,
+        long missCount,
+        double hitRate,
+        long evictionCount,
+        long invalidationCount) {
+
+    public static CacheStatistics from(String name, Cache<?, ?> cache, long invalidationCount) {
+        CacheStats stats = cache.stats();
+        return new CacheStatistics(
+                name,
+                cache.estimatedSize(),
+                stats.hitCount(),
+                stats.missCount(),
+                stats.hitRate(),
+                stats.evictionCount(),
+                invalidationCount
+        );
+    }
+}
@@ -0,0 +1,6 @@
+package com.rohianon.library.DTOs;
+
+import java.util.List;
+
+public record CursorPage<T>(List<T> content, int limit, String nextCursor, boolean hasNext) {
+}
@@ -0,0 +1,24 @@
+package com.rohianon.library.DTOs;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * A page of search results that also carries the facets of every match, not
+ * only of the books on the page.
+ */
+public class FacetedPage<T> extends PageImpl<T> {
+
+    private final Facets facets;
+
+    public FacetedPage(List<T> content, Pageable pageable, long total, Facets facets) {
+        super(content, pageable, total);
+        this.facets = facets;
+    }
+
+    public Facets getFacets() {
+        return facets;
+    }
+}
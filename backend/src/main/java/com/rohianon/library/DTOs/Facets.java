@@ -0,0 +1,13 @@
+package com.rohianon.library.DTOs;
+
+import java.util.List;
+
+/**
+ * Book counts per author, most books first, and per publication decade, oldest
+ * first, over the whole catalog or a set of search matches.
+ */
+public record Facets(long total, List<FacetCount> authors, List<FacetCount> decades) {
+
+    public record FacetCount(String value, long count) {
+    }
+}
@@ -0,0 +1,53 @@
+package com.rohianon.library.DTOs;
+
+import com.rohianon.library.entity.ImportJob;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+public record ImportJobStatus(
+        String id,
+        String fileName,
+        ImportJob.Format format,
+        ImportJob.Status status,
+        long rowsProcessed,
+        long rowsImported,
+        long rowsFailed,
+        double rowsPerSecond,
+        Instant createdAt,
+        Instant runStartedAt,
+        Instant finishedAt,
+        String lastError,
+        List<String> errors) {
+
+    public static ImportJobStatus from(ImportJob job) {
+        return new ImportJobStatus(
+                job.getId(),
+                job.getFileName(),
+                job.getFormat(),
+                job.getStatus(),
+                job.getRowsProcessed(),
+                job.getRowsImported(),
+                job.getRowsFailed(),
+                rowsPerSecond(job),
+                job.getCreatedAt(),
+                job.getRunStartedAt(),
+                job.getFinishedAt(),
+                job.getLastError(),
+                List.copyOf(job.getErrors())
+        );
+    }
+
+    private static double rowsPerSecond(ImportJob job) {
+        if (job.getRunStartedAt() == null) {
+            return 0;
+        }
+        Instant end = job.getFinishedAt() != null ? job.getFinishedAt() : Instant.now();
+        long millis = Duration.between(job.getRunStartedAt(), end).toMillis();
+        if (millis <= 0) {
+            return 0;
+        }
+        return (job.getRowsProcessed() - job.getRunStartRow()) * 1000.0 / millis;
+    }
+}
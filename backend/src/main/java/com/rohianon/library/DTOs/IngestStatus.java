@@ -0,0 +1,31 @@
+package com.rohianon.library.DTOs;
+
+import java.time.Instant;
+import java.util.List;
+
+public record IngestStatus(
+        String id,
+        State state,
+        Long bookId,
+        List<String> errors,
+        Instant acceptedAt,
+        Instant completedAt) {
+
+    public enum State {
+        QUEUED,
+        CREATED,
+        FAILED
+    }
+
+    public static IngestStatus queued(String id, Instant acceptedAt) {
+        return new IngestStatus(id, State.QUEUED, null, List.of(), acceptedAt, null);
+    }
+
+    public static IngestStatus created(String id, long bookId, Instant acceptedAt) {
+        return new IngestStatus(id, State.CREATED, bookId, List.of(), acceptedAt, Instant.now());
+    }
+
+    public static IngestStatus failed(String id, List<String> errors, Instant acceptedAt) {
+        return new IngestStatus(id, State.FAILED, null, errors, acceptedAt, Instant.now());
+    }
+}
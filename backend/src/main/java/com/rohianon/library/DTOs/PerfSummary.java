@@ -0,0 +1,57 @@
+package com.rohianon.library.DTOs;
+
+import java.util.List;
+
+public record PerfSummary(
+        double uptimeSeconds,
+        List<RouteLatency> routes,
+        HibernateStatistics hibernate,
+        ConnectionPoolStatistics connectionPool,
+        JvmStatistics jvm,
+        List<CacheStatistics> caches) {
+
+    public record RouteLatency(
+            String method,
+            String uri,
+            String status,
+            long count,
+            double meanMs,
+            double p50Ms,
+            double p99Ms,
+            double p999Ms,
+            double maxMs) {
+    }
+
+    public record HibernateStatistics(
+            long queryExecutions,
+            long jdbcStatements,
+            long entityLoads,
+            long entityFetches,
+            long secondLevelCacheHits,
+            long secondLevelCacheMisses,
+            long slowestQueryMs,
+            String slowestQuery) {
+    }
+
+    public record ConnectionPoolStatistics(
+            int active,
+            int idle,
+            int pending,
+            int max,
+            long acquisitions,
+            double acquireMeanMs,
+            double acquireP99Ms,
+            double acquireMaxMs,
+            long timeouts) {
+    }
+
+    public record JvmStatistics(
+            long heapUsedBytes,
+            long heapMaxBytes,
+            long gcPauses,
+            double gcPauseTotalMs,
+            double gcPauseMaxMs,
+            long allocatedBytes,
+            double allocationRateBytesPerSecond) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.rohianon.library.DTOs;
+
+/**
+ * A title or author starting with the typed prefix, with the number of books
+ * that carry it.
+ */
+public record Suggestion(String text, Kind kind, int books) {
+
+    public enum Kind {
+        TITLE,
+        AUTHOR
+    }
+}
@@ -0,0 +1,145 @@
+package com.rohianon.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rohianon.library.DTOs.CacheStatistics;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import com.rohianon.library.repository.BookRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Read-through cache for single-book lookups by id and ISBN.
+ *
+ * <p>Writers mark a book as pending before their transaction commits and clear the
+ * mark once it has completed; while a book is pending every read goes to the
+ * database. A load only populates the cache if no invalidation happened while it
+ * was running, so a reader that fetched the old row cannot put it back after the
+ * writer has evicted it.
+ */
+@Component
+public class BookCache implements MeterBinder {
+
+    private final BookRepository bookRepository;
+    private final Cache<Long, Book> booksById;
+    private final Cache<String, Long> idsByIsbn;
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Map<Long, Integer> pendingWrites = new ConcurrentHashMap<>();
+
+    public BookCache(BookRepository bookRepository,
+                     @Value("${library.cache.books.maximum-size:10000}") long maximumSize,
+                     @Value("${library.cache.books.ttl:10m}") Duration ttl) {
+        this.bookRepository = bookRepository;
+        this.booksById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByIsbn = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<Book> findById(Long id) {
+        if (pendingWrites.containsKey(id)) {
+            return bookRepository.findById(id);
+        }
+        Book cached = booksById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copy(cached));
+        }
+        long stamp = generation.get();
+        Optional<Book> loaded = bookRepository.findById(id);
+        loaded.ifPresent(book -> store(book, stamp));
+        return loaded;
+    }
+
+    public Optional<Book> findByIsbn(String isbn) {
+        Long id = idsByIsbn.getIfPresent(isbn);
+        if (id != null) {
+            Optional<Book> book = findById(id);
+            if (book.isPresent() && isbn.equals(book.get().getIsbn())) {
+                return book;
+            }
+            idsByIsbn.asMap().remove(isbn, id);
+        }
+        long stamp = generation.get();
+        Optional<Book> loaded = bookRepository.findByIsbn(isbn);
+        loaded.ifPresent(book -> {
+            if (store(book, stamp)) {
+                idsByIsbn.put(isbn, book.getId());
+            }
+        });
+        return loaded;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void beforeCommit(BookChangedEvent event) {
+        if (event.type() != BookChangedEvent.ChangeType.CREATED) {
+            pendingWrites.merge(event.id(), 1, Integer::sum);
+            invalidate(event.id());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void afterCompletion(BookChangedEvent event) {
+        if (event.type() != BookChangedEvent.ChangeType.CREATED) {
+            invalidate(event.id());
+            pendingWrites.computeIfPresent(event.id(), (id, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    public void invalidate(Long id) {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        booksById.asMap().remove(id);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.incrementAndGet();
+        booksById.invalidateAll();
+        idsByIsbn.invalidateAll();
+    }
+
+    public List<CacheStatistics> statistics() {
+        return List.of(
+                CacheStatistics.from("booksById", booksById, invalidations.get()),
+                CacheStatistics.from("idsByIsbn", idsByIsbn, 0)
+        );
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, booksById, "booksById");
+        CaffeineCacheMetrics.monitor(registry, idsByIsbn, "idsByIsbn");
+    }
+
+    private boolean store(Book book, long stamp) {
+        Book snapshot = copy(book);
+        Book stored = booksById.asMap().compute(book.getId(), (id, current) ->
+                generation.get() == stamp && !pendingWrites.containsKey(id) ? snapshot : current);
+        return stored == snapshot;
+    }
+
+    private static Book copy(Book book) {
+        return new Book(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(), book.getPublishedDate(),
+                book.getVersion());
+    }
+}
@@ -0,0 +1,88 @@
+package com.rohianon.library.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.DTOs.CacheStatistics;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Books encoded as JSON, filled the first time a version is served. Entries are
+ * keyed by id and only returned for the version they were encoded from, so a
+ * reader holding an older or newer copy of the book encodes its own; updates and
+ * deletes drop the entry once they have committed. A book without an id or a
+ * version, which cannot be told apart from its other copies, is encoded every
+ * time.
+ *
+ * <p>Every book is encoded as a full {@link BookResponse}, so the bytes are the
+ * same whether they end up in a single-book response or in a list.
+ */
+@Component
+public class BookJsonCache implements MeterBinder {
+
+    private final JsonMapper jsonMapper;
+    private final Cache<Long, EncodedJson> jsonById;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public BookJsonCache(JsonMapper jsonMapper,
+                         @Value("${library.cache.book-json.maximum-size:32MB}") DataSize maximumSize) {
+        this.jsonMapper = jsonMapper;
+        this.jsonById = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .weigher((Long id, EncodedJson json) -> json.length())
+                .recordStats()
+                .build();
+    }
+
+    public EncodedJson json(Book book) {
+        return json(new BookResponse(book.getId(), book.getTitle(), book.getAuthor(), book.getIsbn(),
+                book.getPublishedDate(), book.getVersion()));
+    }
+
+    /**
+     * The encoded form of a book with every field present; callers serialize
+     * narrowed responses themselves.
+     */
+    public EncodedJson json(BookResponse book) {
+        if (book.id() == null || book.version() == null) {
+            return new EncodedJson(book.version(), jsonMapper.writeValueAsBytes(book));
+        }
+        EncodedJson cached = jsonById.getIfPresent(book.id());
+        if (cached != null && Objects.equals(cached.version(), book.version())) {
+            return cached;
+        }
+        EncodedJson encoded = new EncodedJson(book.version(), jsonMapper.writeValueAsBytes(book));
+        jsonById.asMap().merge(book.id(), encoded,
+                (current, fresh) -> current.version() > fresh.version() ? current : fresh);
+        return encoded;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        if (event.type() != BookChangedEvent.ChangeType.CREATED) {
+            invalidations.incrementAndGet();
+            jsonById.invalidate(event.id());
+        }
+    }
+
+    public CacheStatistics statistics() {
+        return CacheStatistics.from("bookJson", jsonById, invalidations.get());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, jsonById, "bookJson");
+    }
+}
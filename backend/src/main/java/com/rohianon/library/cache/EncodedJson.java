@@ -0,0 +1,117 @@
+package com.rohianon.library.cache;
+
+import tools.jackson.core.SerializableString;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A book already encoded as UTF-8 JSON, stamped with the version it was encoded
+ * from. As a {@link SerializableString} it can be handed to
+ * {@link tools.jackson.core.JsonGenerator#writeRawValue(SerializableString)}, which
+ * copies the bytes into the output buffer as they are.
+ */
+public final class EncodedJson implements SerializableString {
+
+    private final Long version;
+    private final byte[] json;
+
+    EncodedJson(Long version, byte[] json) {
+        this.version = version;
+        this.json = json;
+    }
+
+    /** The version the book was encoded from, or null if it had none. */
+    public Long version() {
+        return version;
+    }
+
+    public int length() {
+        return json.length;
+    }
+
+    @Override
+    public String getValue() {
+        return new String(json, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public int charLength() {
+        return getValue().length();
+    }
+
+    @Override
+    public byte[] asUnquotedUTF8() {
+        return json;
+    }
+
+    @Override
+    public int appendUnquotedUTF8(byte[] buffer, int offset) {
+        if (offset + json.length > buffer.length) {
+            return -1;
+        }
+        System.arraycopy(json, 0, buffer, offset, json.length);
+        return json.length;
+    }
+
+    @Override
+    public int appendUnquoted(char[] buffer, int offset) {
+        String value = getValue();
+        if (offset + value.length() > buffer.length) {
+            return -1;
+        }
+        value.getChars(0, value.length(), buffer, offset);
+        return value.length();
+    }
+
+    @Override
+    public int writeUnquotedUTF8(OutputStream out) throws IOException {
+        out.write(json);
+        return json.length;
+    }
+
+    @Override
+    public int putUnquotedUTF8(ByteBuffer buffer) {
+        if (json.length > buffer.remaining()) {
+            return -1;
+        }
+        buffer.put(json);
+        return json.length;
+    }
+
+    @Override
+    public char[] asQuotedChars() {
+        throw quoted();
+    }
+
+    @Override
+    public byte[] asQuotedUTF8() {
+        throw quoted();
+    }
+
+    @Override
+    public int appendQuotedUTF8(byte[] buffer, int offset) {
+        throw quoted();
+    }
+
+    @Override
+    public int appendQuoted(char[] buffer, int offset) {
+        throw quoted();
+    }
+
+    @Override
+    public int writeQuotedUTF8(OutputStream out) {
+        throw quoted();
+    }
+
+    @Override
+    public int putQuotedUTF8(ByteBuffer buffer) {
+        throw quoted();
+    }
+
+    private static UnsupportedOperationException quoted() {
+        return new UnsupportedOperationException("Encoded JSON is a value, not a string");
+    }
+}
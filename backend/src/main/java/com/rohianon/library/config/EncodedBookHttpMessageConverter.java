@@ -0,0 +1,53 @@
+package com.rohianon.library.config;
+
+import com.rohianon.library.cache.BookJsonCache;
+import com.rohianon.library.cache.EncodedJson;
+import com.rohianon.library.entity.Book;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Writes a single {@link Book} as JSON by copying its encoded bytes from the
+ * {@link BookJsonCache} to the response, without going through a Jackson
+ * generator. Reading is left to the Jackson converter.
+ */
+class EncodedBookHttpMessageConverter extends AbstractHttpMessageConverter<Book> {
+
+    private final BookJsonCache bookJsonCache;
+
+    EncodedBookHttpMessageConverter(BookJsonCache bookJsonCache) {
+        super(MediaType.APPLICATION_JSON);
+        this.bookJsonCache = bookJsonCache;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return Book.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Book readInternal(Class<? extends Book> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Books are read by the JSON converter", inputMessage);
+    }
+
+    @Override
+    protected Long getContentLength(Book book, MediaType contentType) {
+        return (long) bookJsonCache.json(book).length();
+    }
+
+    @Override
+    protected void writeInternal(Book book, HttpOutputMessage outputMessage) throws IOException {
+        EncodedJson json = bookJsonCache.json(book);
+        json.writeUnquotedUTF8(outputMessage.getBody());
+    }
+}
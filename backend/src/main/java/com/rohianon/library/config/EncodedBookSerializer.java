@@ -0,0 +1,56 @@
+package com.rohianon.library.config;
+
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.cache.BookJsonCache;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.databind.BeanProperty;
+import tools.jackson.databind.SerializationContext;
+import tools.jackson.databind.ValueSerializer;
+
+/**
+ * Writes a complete {@link BookResponse} as its pre-encoded JSON from the
+ * {@link BookJsonCache}; responses narrowed with {@code fields} go to Jackson's
+ * own serializer.
+ */
+class EncodedBookSerializer extends ValueSerializer<BookResponse> {
+
+    private final BookJsonCache bookJsonCache;
+    private final ValueSerializer<BookResponse> delegate;
+
+    EncodedBookSerializer(BookJsonCache bookJsonCache, ValueSerializer<BookResponse> delegate) {
+        this.bookJsonCache = bookJsonCache;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void serialize(BookResponse book, JsonGenerator generator, SerializationContext context) {
+        if (isComplete(book)) {
+            generator.writeRawValue(bookJsonCache.json(book));
+        } else {
+            delegate.serialize(book, generator, context);
+        }
+    }
+
+    @Override
+    public void resolve(SerializationContext context) {
+        delegate.resolve(context);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public ValueSerializer<?> createContextual(SerializationContext context, BeanProperty property) {
+        ValueSerializer<?> contextual = delegate.createContextual(context, property);
+        return contextual == delegate ? this
+                : new EncodedBookSerializer(bookJsonCache, (ValueSerializer<BookResponse>) contextual);
+    }
+
+    @Override
+    public Class<?> handledType() {
+        return BookResponse.class;
+    }
+
+    private static boolean isComplete(BookResponse book) {
+        return book.id() != null && book.title() != null && book.author() != null && book.isbn() != null
+                && book.publishedDate() != null && book.version() != null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.rohianon.library.config;
+
+import com.rohianon.library.exception.ErrorResponse;
+import com.rohianon.library.index.BookIndexLoader;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Turns writes away with 503 and Retry-After until the in-memory indexes are
+ * loaded. Until then the ISBN index is incomplete, so a duplicate would get
+ * past the availability check; reads go through. If the load failed, writes
+ * are turned away without Retry-After while the application shuts down.
+ */
+public class IndexLoadingFilter extends OncePerRequestFilter {
+
+    private static final Set<String> READS = Set.of(
+            HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final BookIndexLoader bookIndexLoader;
+    private final ObjectMapper objectMapper;
+
+    public IndexLoadingFilter(BookIndexLoader bookIndexLoader, ObjectMapper objectMapper) {
+        this.bookIndexLoader = bookIndexLoader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (bookIndexLoader.isLoaded() || READS.contains(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+        boolean failed = bookIndexLoader.isFailed();
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                "Service Unavailable",
+                failed
+                        ? "The server could not load its indexes"
+                        : "The server is still loading its indexes, retry shortly",
+                request.getRequestURI()
+        );
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        if (!failed) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), error);
+    }
+}
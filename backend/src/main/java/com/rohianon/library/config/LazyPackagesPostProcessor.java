@@ -0,0 +1,51 @@
+package com.rohianon.library.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+
+import java.util.List;
+
+/**
+ * Marks every bean declared by a class in one of the given packages as lazy, so
+ * tooling that no API request depends on (the OpenAPI docs and Swagger UI) is
+ * built on its first use instead of during startup.
+ */
+@Slf4j
+public class LazyPackagesPostProcessor implements BeanFactoryPostProcessor {
+
+    private final List<String> packages;
+
+    public LazyPackagesPostProcessor(List<String> packages) {
+        this.packages = packages.stream().map(name -> name.endsWith(".") ? name : name + ".").toList();
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+        int marked = 0;
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition definition = beanFactory.getBeanDefinition(name);
+            if (definition.isLazyInit() || definition.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE) {
+                continue;
+            }
+            if (isInPackages(declaringClassName(beanFactory, definition))) {
+                definition.setLazyInit(true);
+                marked++;
+            }
+        }
+        log.debug("Marked {} beans in {} as lazy", marked, packages);
+    }
+
+    private static String declaringClassName(ConfigurableListableBeanFactory beanFactory, BeanDefinition definition) {
+        String factoryBeanName = definition.getFactoryBeanName();
+        if (factoryBeanName != null && beanFactory.containsBeanDefinition(factoryBeanName)) {
+            return beanFactory.getBeanDefinition(factoryBeanName).getBeanClassName();
+        }
+        return definition.getBeanClassName();
+    }
+
+    private boolean isInPackages(String className) {
+        return className != null && packages.stream().anyMatch(className::startsWith);
+    }
+}
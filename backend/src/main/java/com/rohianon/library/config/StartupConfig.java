@@ -0,0 +1,21 @@
+package com.rohianon.library.config;
+
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+public class StartupConfig {
+
+    @Bean
+    public static LazyPackagesPostProcessor lazyPackagesPostProcessor(Environment environment) {
+        List<String> packages = Binder.get(environment)
+                .bind("library.startup.lazy-packages", Bindable.listOf(String.class))
+                .orElse(List.of());
+        return new LazyPackagesPostProcessor(packages);
+    }
+}
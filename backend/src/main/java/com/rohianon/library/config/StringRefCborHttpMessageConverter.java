@@ -0,0 +1,29 @@
+package com.rohianon.library.config;
+
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import tools.jackson.core.JsonGenerator;
+import tools.jackson.dataformat.cbor.CBORGenerator;
+import tools.jackson.dataformat.cbor.CBORMapper;
+import tools.jackson.dataformat.cbor.CBORWriteFeature;
+
+/**
+ * CBOR converter whose output other decoders can read when string references are
+ * on. Jackson 3.0 writes the references but not the stringref-namespace tag (256)
+ * that has to enclose them, so decoders such as Jackson 2's reject the body; this
+ * writes the tag in front of every document.
+ */
+public class StringRefCborHttpMessageConverter extends JacksonCborHttpMessageConverter {
+
+    private static final int STRINGREF_NAMESPACE_TAG = 256;
+
+    public StringRefCborHttpMessageConverter(CBORMapper cborMapper) {
+        super(cborMapper);
+    }
+
+    @Override
+    protected void writePrefix(JsonGenerator generator, Object object) {
+        if (generator instanceof CBORGenerator cbor && cbor.isEnabled(CBORWriteFeature.STRINGREF)) {
+            cbor.writeTag(STRINGREF_NAMESPACE_TAG);
+        }
+    }
+}
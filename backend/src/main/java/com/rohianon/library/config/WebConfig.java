@@ -1,4 +1,94 @@
 package com.rohianon.library.config;
 
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.cache.BookJsonCache;
+import com.rohianon.library.index.BookIndexLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.http.converter.autoconfigure.ServerHttpMessageConvertersCustomizer;
+import org.springframework.boot.jackson.autoconfigure.CborMapperBuilderCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.json.JacksonJsonHttpMessageConverter;
+import tools.jackson.databind.BeanDescription;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.SerializationConfig;
+import tools.jackson.databind.ValueSerializer;
+import tools.jackson.databind.cfg.DateTimeFeature;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.module.SimpleModule;
+import tools.jackson.databind.ser.ValueSerializerModifier;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.time.Duration;
+
+@Configuration
 public class WebConfig {
+
+    /**
+     * Serves {@code application/cbor} through Boot's {@link CBORMapper}, so the
+     * {@code spring.jackson.cbor.*} settings apply to responses.
+     */
+    @Bean
+    public ServerHttpMessageConvertersCustomizer cborMessageConverter(CBORMapper cborMapper) {
+        return converters -> converters.withCborConverter(new StringRefCborHttpMessageConverter(cborMapper));
+    }
+
+    /**
+     * Serves books as JSON from the {@link BookJsonCache}: a single book is copied
+     * to the response as is and a complete {@link BookResponse} in a list is
+     * written as a raw fragment. Both come before Boot's JSON converter, which
+     * keeps the shared {@link JsonMapper} as it is: that mapper encodes the cached
+     * bytes.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "library.cache.book-json.enabled", matchIfMissing = true)
+    public ServerHttpMessageConvertersCustomizer encodedBookMessageConverters(JsonMapper jsonMapper,
+                                                                             BookJsonCache bookJsonCache) {
+        SimpleModule encodedBooks = new SimpleModule("EncodedBooks").setSerializerModifier(new ValueSerializerModifier() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public ValueSerializer<?> modifySerializer(SerializationConfig config, BeanDescription.Supplier beanDesc,
+                                                       ValueSerializer<?> serializer) {
+                return beanDesc.getBeanClass() == BookResponse.class
+                        ? new EncodedBookSerializer(bookJsonCache, (ValueSerializer<BookResponse>) serializer)
+                        : serializer;
+            }
+        });
+        JsonMapper responseMapper = jsonMapper.rebuild().addModule(encodedBooks).build();
+        return converters -> converters
+                .addCustomConverter(new EncodedBookHttpMessageConverter(bookJsonCache))
+                .addCustomConverter(new JacksonJsonHttpMessageConverter(responseMapper));
+    }
+
+    /**
+     * In CBOR a date goes out as {@code [year, month, day]} (6 bytes) instead of an
+     * ISO string (11 bytes); JSON keeps the string.
+     */
+    @Bean
+    public CborMapperBuilderCustomizer cborDatesAsArrays() {
+        return builder -> builder.enable(DateTimeFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    @Bean
+    @ConditionalOnProperty("library.backpressure.max-concurrent-requests")
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Value("${library.backpressure.max-concurrent-requests}") int maxConcurrentRequests,
+            @Value("${library.backpressure.max-wait:500ms}") Duration maxWait,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(maxConcurrentRequests, maxWait, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+
+    @Bean
+    public FilterRegistrationBean<IndexLoadingFilter> indexLoadingFilter(BookIndexLoader bookIndexLoader,
+                                                                         ObjectMapper objectMapper) {
+        FilterRegistrationBean<IndexLoadingFilter> registration =
+                new FilterRegistrationBean<>(new IndexLoadingFilter(bookIndexLoader, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
 }
@@ -0,0 +1,37 @@
+package com.rohianon.library.controller;
+
+import com.rohianon.library.DTOs.CacheStatistics;
+import com.rohianon.library.DTOs.PerfSummary;
+import com.rohianon.library.cache.BookCache;
+import com.rohianon.library.cache.BookJsonCache;
+import com.rohianon.library.service.PerfSummaryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final BookCache bookCache;
+    private final BookJsonCache bookJsonCache;
+    private final PerfSummaryService perfSummaryService;
+
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+        List<CacheStatistics> statistics = new ArrayList<>(bookCache.statistics());
+        statistics.add(bookJsonCache.statistics());
+        return ResponseEntity.ok(statistics);
+    }
+
+    @GetMapping("/perf")
+    public ResponseEntity<PerfSummary> getPerfSummary() {
+        return ResponseEntity.ok(perfSummaryService.summarize());
+    }
+}
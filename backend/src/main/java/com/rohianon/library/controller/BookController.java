@@ -1,17 +1,47 @@
 package com.rohianon.library.controller;
 
+import com.rohianon.library.DTOs.BatchResult;
+import com.rohianon.library.DTOs.BookDeleteRequest;
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookFilter;
+import com.rohianon.library.DTOs.BookPatch;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.DTOs.BulkBookPatch;
+import com.rohianon.library.DTOs.BulkResult;
+import com.rohianon.library.DTOs.CursorPage;
+import com.rohianon.library.DTOs.Facets;
+import com.rohianon.library.DTOs.IngestStatus;
+import com.rohianon.library.DTOs.Suggestion;
 import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangeFeed;
+import com.rohianon.library.service.BookBatchService;
 import com.rohianon.library.service.BookService;
+import com.rohianon.library.service.IngestService;
+import com.rohianon.library.service.BookSort;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import tools.jackson.databind.ObjectMapper;
 
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/books")
@@ -19,42 +49,210 @@ import java.util.List;
 public class BookController {
 
     private final BookService bookService;
+    private final BookBatchService bookBatchService;
+    private final IngestService ingestService;
+    private final BookChangeFeed bookChangeFeed;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
-    public ResponseEntity<Book> createBook(@Valid @RequestBody Book book) {
+    public ResponseEntity<Book> createBook(
+            @Valid @RequestBody Book book,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
         Book createdBook = bookService.createBook(book);
         URI location = ServletUriComponentsBuilder
                 .fromCurrentRequest()
                 .path("/{id}")
                 .buildAndExpand(createdBook.getId())
                 .toUri();
-        return ResponseEntity.created(location).body(createdBook);
+        return tagged(ResponseEntity.created(location), BookETags.of(createdBook), accept).body(createdBook);
+    }
+
+    /**
+     * With write-behind ingestion enabled, {@code Prefer: respond-async} queues the
+     * book and answers 202 with a status URL instead of waiting for its commit.
+     * Otherwise the preference is ignored and the book is created right away.
+     */
+    @PostMapping(headers = "Prefer=respond-async")
+    public ResponseEntity<?> ingestBook(
+            @Valid @RequestBody Book book,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        if (!ingestService.isEnabled()) {
+            return createBook(book, accept);
+        }
+        IngestStatus status = ingestService.accept(book);
+        URI location = ServletUriComponentsBuilder
+                .fromCurrentRequest()
+                .path("/ingest/{id}")
+                .buildAndExpand(status.id())
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(location)
+                .header("Preference-Applied", "respond-async")
+                .body(status);
+    }
+
+    @GetMapping("/ingest/{id}")
+    public ResponseEntity<IngestStatus> getIngestStatus(@PathVariable String id) {
+        return ResponseEntity.ok(ingestService.getStatus(id));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResult> createBooks(@RequestBody List<Book> books) {
+        BatchResult result = bookBatchService.createBooks(books);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping("/batch-delete")
+    public ResponseEntity<BulkResult> deleteBooks(@RequestBody BookDeleteRequest request) {
+        BulkResult result = bookBatchService.deleteBooks(request);
+        return ResponseEntity.ok(result);
     }
 
     @GetMapping
-    public ResponseEntity<List<Book>> getAllBooks() {
-        List<Book> books = bookService.getAllBooks();
+    public ResponseEntity<List<BookResponse>> getAllBooks(@RequestParam(required = false) String fields) {
+        List<BookResponse> books = bookService.getAllBooks(BookField.fromParameter(fields));
         return ResponseEntity.ok(books);
     }
 
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllBooks(@RequestParam(required = false) String fields) {
+        Set<BookField> selected = BookField.fromParameter(fields);
+        StreamingResponseBody body = outputStream -> {
+            OutputStream out = new BufferedOutputStream(outputStream);
+            bookService.streamAllBooks(selected, book -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(book));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
     @GetMapping(params = {"page", "size"})
-    public ResponseEntity<Page<Book>> getAllBooks(
+    public ResponseEntity<Page<BookResponse>> getAllBooks(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
-        Page<Book> books = bookService.getAllBooks(page, size);
-        return ResponseEntity.ok(books);
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<BookField> selected = BookField.fromParameter(fields);
+        Page<BookResponse> books = bookService.getAllBooks(page, size, selected);
+        return conditional(BookETags.of(books, selected), accept, ifNoneMatch, books);
+    }
+
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<BookResponse>> getBooksAfter(
+            @RequestParam(required = false) String after,
+            @RequestParam int limit,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<BookField> selected = BookField.fromParameter(fields);
+        CursorPage<BookResponse> books = bookService.getBooksAfter(after, limit, BookSort.fromParameter(sort), selected);
+        return conditional(BookETags.of(books, selected), accept, ifNoneMatch, books);
+    }
+
+    /**
+     * Committed creates, updates and deletes as Server-Sent Events. Reconnecting
+     * with {@code Last-Event-ID} resumes after that event.
+     */
+    @GetMapping(path = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return bookChangeFeed.subscribe(lastEventId);
+    }
+
+    @GetMapping("/query")
+    public ResponseEntity<CursorPage<BookResponse>> queryBooks(
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishedFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate publishedTo,
+            @RequestParam(required = false) String isbnPrefix,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(defaultValue = "title") String sort,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        Set<BookField> selected = BookField.fromParameter(fields);
+        BookFilter filter = new BookFilter(author, publishedFrom, publishedTo, isbnPrefix);
+        CursorPage<BookResponse> books = bookService.queryBooks(filter, after, limit, BookSort.fromParameter(sort),
+                selected);
+        return conditional(BookETags.of(books, selected), accept, ifNoneMatch, books);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<Page<BookResponse>> searchBooks(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) Integer facets,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        Page<BookResponse> books = bookService.searchBooks(query, page, size, BookField.fromParameter(fields), facets,
+                fuzzy);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(books);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(bookService.suggest(prefix, limit));
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<Facets> getFacets(@RequestParam(defaultValue = "10") int authors) {
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(bookService.getFacets(authors));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<Book> getBookById(@PathVariable Long id) {
+    public ResponseEntity<Book> getBookById(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         Book book = bookService.getBookById(id);
-        return ResponseEntity.ok(book);
+        return conditional(BookETags.of(book), accept, ifNoneMatch, book);
+    }
+
+    @GetMapping("/isbn/{isbn}")
+    public ResponseEntity<Book> getBookByIsbn(@PathVariable String isbn) {
+        Book book = bookService.getBookByIsbn(isbn);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(book);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Book> updateBook(@PathVariable Long id, @Valid @RequestBody Book book) {
-        Book updatedBook = bookService.updateBook(id, book);
-        return ResponseEntity.ok(updatedBook);
+    public ResponseEntity<Book> updateBook(
+            @PathVariable Long id,
+            @Valid @RequestBody Book book,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Book updatedBook = ifMatch == null
+                ? bookService.updateBook(id, book)
+                : bookService.updateBook(id, book, current -> BookETags.matchesIfMatch(ifMatch, BookETags.of(current)));
+        return tagged(ResponseEntity.ok(), BookETags.of(updatedBook), accept).body(updatedBook);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Book> patchBook(
+            @PathVariable Long id,
+            @Valid @RequestBody BookPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        Book patchedBook = bookService.patchBook(id, patch, BookETags.expectedVersion(ifMatch, id));
+        return tagged(ResponseEntity.ok(), BookETags.of(patchedBook), accept).body(patchedBook);
+    }
+
+    @PatchMapping
+    public ResponseEntity<BulkResult> patchBooks(@Valid @RequestBody BulkBookPatch request) {
+        BulkResult result = bookService.patchBooks(request.ids(), request.changes());
+        return ResponseEntity.ok(result);
     }
 
     @DeleteMapping("/{id}")
@@ -62,4 +260,33 @@ public class BookController {
         bookService.deleteBook(id);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Answers 304 when the client already holds the current representation;
+     * otherwise returns the body tagged so the client can revalidate next time.
+     */
+    private static <T> ResponseEntity<T> conditional(String etag, String accept, String ifNoneMatch, T body) {
+        String tag = BookETags.forRepresentation(etag, BookETags.representation(accept));
+        if (BookETags.matchesNoneMatch(ifNoneMatch, tag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(tag)
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .cacheControl(CacheControl.noCache())
+                    .build();
+        }
+        return tagged(ResponseEntity.ok(), etag, accept)
+                .cacheControl(CacheControl.noCache())
+                .body(body);
+    }
+
+    /**
+     * Tags the response for the representation the Accept header selects, and
+     * fixes the content type to that representation so the tag always matches the
+     * body. Caches are told the body depends on Accept.
+     */
+    private static ResponseEntity.BodyBuilder tagged(ResponseEntity.BodyBuilder response, String etag, String accept) {
+        MediaType representation = BookETags.representation(accept);
+        response.eTag(BookETags.forRepresentation(etag, representation)).varyBy(HttpHeaders.ACCEPT);
+        return representation == null ? response : response.contentType(representation);
+    }
 }
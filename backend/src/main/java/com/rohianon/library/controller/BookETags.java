@@ -0,0 +1,190 @@
+package com.rohianon.library.controller;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.DTOs.CursorPage;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.exception.PreconditionFailedException;
+import org.springframework.data.domain.Page;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Strong entity tags for books and pages of books. A book's tag is its id and
+ * {@code @Version}; a page's tag hashes the ids and versions of its rows together
+ * with the page metadata and the selected fields, so it changes whenever any row
+ * on it does. JSON and CBOR bodies differ byte for byte, so a CBOR tag carries a
+ * {@code -cbor} suffix.
+ */
+final class BookETags {
+
+    /** The representations the API negotiates, in order of preference on a tie. */
+    private static final List<MediaType> REPRESENTATIONS = List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR);
+
+    private static final String CBOR_SUFFIX = "-cbor";
+    private static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private BookETags() {
+    }
+
+    static String of(Book book) {
+        return "\"" + book.getId() + "." + book.getVersion() + "\"";
+    }
+
+    static String of(Page<BookResponse> page, Set<BookField> fields) {
+        long hash = mix(FNV_OFFSET_BASIS, mask(fields));
+        hash = mix(hash, page.getNumber());
+        hash = mix(hash, page.getSize());
+        hash = mix(hash, page.getTotalElements());
+        return "\"p" + Long.toHexString(mix(hash, page.getContent())) + "\"";
+    }
+
+    static String of(CursorPage<BookResponse> page, Set<BookField> fields) {
+        long hash = mix(FNV_OFFSET_BASIS, mask(fields));
+        hash = mix(hash, page.limit());
+        hash = mix(hash, page.nextCursor() == null ? 0 : page.nextCursor().hashCode());
+        return "\"c" + Long.toHexString(mix(hash, page.content())) + "\"";
+    }
+
+    /**
+     * The representation an Accept header selects: the one with the highest quality,
+     * taken from the most specific range that includes it, then the one whose range
+     * comes first in the header, then JSON. Null when neither is acceptable.
+     */
+    static MediaType representation(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> ranges;
+        try {
+            ranges = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType best = null;
+        double bestQuality = 0;
+        int bestPosition = Integer.MAX_VALUE;
+        for (MediaType candidate : REPRESENTATIONS) {
+            int position = -1;
+            for (int i = 0; i < ranges.size(); i++) {
+                MediaType range = ranges.get(i);
+                if (range.includes(candidate) && (position < 0 || specificity(range) > specificity(ranges.get(position)))) {
+                    position = i;
+                }
+            }
+            if (position < 0) {
+                continue;
+            }
+            double quality = ranges.get(position).getQualityValue();
+            if (quality > bestQuality || (quality == bestQuality && quality > 0 && position < bestPosition)) {
+                best = candidate;
+                bestQuality = quality;
+                bestPosition = position;
+            }
+        }
+        return best;
+    }
+
+    /** The tag of {@code etag}'s resource in the given representation. */
+    static String forRepresentation(String etag, MediaType representation) {
+        return MediaType.APPLICATION_CBOR.equals(representation)
+                ? etag.substring(0, etag.length() - 1) + CBOR_SUFFIX + "\""
+                : etag;
+    }
+
+    /**
+     * Weak comparison, as required for If-None-Match.
+     */
+    static boolean matchesNoneMatch(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Strong comparison, as required for If-Match; weak tags never match.
+     */
+    static boolean matchesIfMatch(String ifMatch, String etag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = withoutRepresentation(candidate.trim());
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The version an If-Match header pins book {@code id} to, or null when any
+     * version is acceptable. A header that cannot name this book's current
+     * representation fails the precondition outright.
+     */
+    static Long expectedVersion(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String prefix = "\"" + id + ".";
+        String tag = withoutRepresentation(ifMatch.trim());
+        if (tag.startsWith(prefix) && tag.endsWith("\"") && tag.length() > prefix.length() + 1) {
+            try {
+                return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // fall through to the precondition failure
+            }
+        }
+        throw new PreconditionFailedException("Book " + id + " has been modified since it was read");
+    }
+
+    /**
+     * A book's version is the same whichever representation its tag was read in,
+     * so If-Match compares tags without the representation suffix.
+     */
+    private static String withoutRepresentation(String tag) {
+        return tag.endsWith(CBOR_SUFFIX + "\"")
+                ? tag.substring(0, tag.length() - CBOR_SUFFIX.length() - 1) + "\""
+                : tag;
+    }
+
+    private static int specificity(MediaType range) {
+        return range.isWildcardType() ? 0 : range.isWildcardSubtype() ? 1 : 2;
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    private static long mix(long hash, List<BookResponse> books) {
+        for (BookResponse book : books) {
+            hash = mix(hash, book.id());
+            hash = mix(hash, book.version());
+        }
+        return hash;
+    }
+
+    private static long mask(Set<BookField> fields) {
+        long mask = 0;
+        for (BookField field : fields) {
+            mask |= 1L << field.ordinal();
+        }
+        return mask;
+    }
+
+    private static long mix(long hash, long value) {
+        for (int shift = 0; shift < Long.SIZE; shift += Byte.SIZE) {
+            hash ^= (value >>> shift) & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
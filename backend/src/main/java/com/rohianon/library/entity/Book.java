@@ -1,5 +1,6 @@
 package com.rohianon.library.entity;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -11,14 +12,21 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "books")
+@Table(name = "books", indexes = {
+        @Index(name = "idx_books_title_id", columnList = "title, id"),
+        @Index(name = "idx_books_published_date_id", columnList = "published_date, id"),
+        @Index(name = "idx_books_author_id", columnList = "author, id"),
+        @Index(name = "idx_books_author_published_date_id", columnList = "author, published_date, id"),
+        @Index(name = "idx_books_isbn", columnList = "isbn", unique = true)
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Book {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "books_seq")
+    @SequenceGenerator(name = "books_seq", sequenceName = "books_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Title is required")
@@ -33,10 +41,15 @@ public class Book {
 
     @NotBlank(message = "ISBN is required")
     @Size(max = 20, message = "ISBN must not exceed 20 characters")
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private String isbn;
 
     @NotNull(message = "Published date is required")
     @Column(name = "published_date", nullable = false)
     private LocalDate publishedDate;
+
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Column(nullable = false)
+    private Long version;
 }
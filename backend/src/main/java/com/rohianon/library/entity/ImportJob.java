@@ -0,0 +1,80 @@
+package com.rohianon.library.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Entity
+@Table(name = "import_jobs")
+@Data
+@NoArgsConstructor
+public class ImportJob {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "stored_path", nullable = false, length = 1024)
+    private String storedPath;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Format format;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Status status;
+
+    /**
+     * Checkpoint: number of data rows whose outcome has been committed. A resumed
+     * run skips exactly this many rows of the stored file.
+     */
+    @Column(name = "rows_processed", nullable = false)
+    private long rowsProcessed;
+
+    @Column(name = "rows_imported", nullable = false)
+    private long rowsImported;
+
+    @Column(name = "rows_failed", nullable = false)
+    private long rowsFailed;
+
+    @Column(name = "run_start_row", nullable = false)
+    private long runStartRow;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Column(name = "run_started_at")
+    private Instant runStartedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "import_job_errors", joinColumns = @JoinColumn(name = "job_id"))
+    @OrderColumn(name = "position")
+    @Column(name = "message", length = 1024)
+    private List<String> errors = new ArrayList<>();
+}
@@ -0,0 +1,31 @@
+package com.rohianon.library.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * How far the durable ingest journal has been written to the books table: every
+ * entry before {@code entries} in segment {@code segment}, and every earlier
+ * segment. Saved in the same transaction as the books it covers.
+ */
+@Entity
+@Table(name = "ingest_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestCheckpoint {
+
+    public static final String JOURNAL = "journal";
+
+    @Id
+    @Column(length = 32)
+    private String id;
+
+    @Column(name = "journal_segment", nullable = false)
+    private long segment;
+
+    @Column(name = "entries_committed", nullable = false)
+    private long entries;
+}
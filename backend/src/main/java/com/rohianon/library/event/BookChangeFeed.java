@@ -0,0 +1,211 @@
+package com.rohianon.library.event;
+
+import com.rohianon.library.DTOs.BookChange;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Server-Sent Events feed of committed book changes. Every change gets the next
+ * sequence number and is kept in a ring buffer of the latest {@code buffer-size}
+ * changes; each subscriber has its own virtual thread that sends what it has not
+ * seen yet, so a slow client only holds up itself.
+ *
+ * <p>Event ids are resume tokens: a client that reconnects with
+ * {@code Last-Event-ID} is sent only the changes after it. When that is not
+ * possible (a first connection, a token from before a restart, or one that has
+ * fallen out of the buffer) the client is sent a {@code reset} event instead and
+ * should reload what it shows.
+ */
+@Slf4j
+@Component
+public class BookChangeFeed implements MeterBinder {
+
+    public static final String CHANGE_EVENT = "change";
+    public static final String RESET_EVENT = "reset";
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final BookChange[] buffer;
+    private final Duration timeout;
+    private final Duration heartbeat;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final AtomicLong resets = new AtomicLong();
+    private long last;
+    private volatile boolean open = true;
+
+    public BookChangeFeed(@Value("${library.changes.buffer-size:10000}") int bufferSize,
+                          @Value("${library.changes.timeout:30m}") Duration timeout,
+                          @Value("${library.changes.heartbeat:15s}") Duration heartbeat) {
+        this.buffer = new BookChange[bufferSize];
+        this.timeout = timeout;
+        this.heartbeat = heartbeat;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        BookChange change = BookChange.from(event);
+        lock.lock();
+        try {
+            last++;
+            buffer[slot(last)] = change;
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Opens a stream that starts after the change {@code lastEventId} names, or
+     * with a {@code reset} when it names none that can be replayed.
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscription subscription = new Subscription(emitter, resumeAfter(lastEventId));
+        subscriptions.add(subscription);
+        emitter.onCompletion(subscription::close);
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscription.close());
+        Thread.ofVirtual().name("change-feed").start(subscription::run);
+        return emitter;
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void close() {
+        open = false;
+        lock.lock();
+        try {
+            appended.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        subscriptions.forEach(subscription -> subscription.emitter.complete());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.changes.subscribers", subscriptions, Set::size)
+                .description("Open change feed streams")
+                .register(registry);
+        FunctionCounter.builder("library.changes.resets", resets, AtomicLong::get)
+                .description("Streams told to reload instead of resuming")
+                .register(registry);
+    }
+
+    /** The sequence to resume after, or -1 when the client has to start over. */
+    private long resumeAfter(String lastEventId) {
+        if (lastEventId == null) {
+            return -1;
+        }
+        int separator = lastEventId.indexOf('-');
+        if (separator < 0 || !epoch.equals(lastEventId.substring(0, separator))) {
+            return -1;
+        }
+        try {
+            long sequence = Long.parseLong(lastEventId.substring(separator + 1));
+            return sequence >= 0 ? sequence : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % buffer.length);
+    }
+
+    private String token(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private final class Subscription {
+
+        private final SseEmitter emitter;
+        private long cursor;
+        private volatile boolean closed;
+
+        private Subscription(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        private void run() {
+            try {
+                while (open && !closed) {
+                    List<BookChange> changes = new ArrayList<>();
+                    boolean reset = false;
+                    lock.lock();
+                    try {
+                        if (cursor == last) {
+                            appended.await(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                        }
+                        if (cursor < 0 || cursor > last || last - cursor > buffer.length) {
+                            reset = true;
+                            cursor = last;
+                        }
+                        while (cursor < last) {
+                            changes.add(buffer[slot(++cursor)]);
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    send(changes, reset);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Change feed subscriber went away: {}", e.getMessage());
+            } catch (RuntimeException e) {
+                log.warn("Change feed subscriber failed", e);
+                emitter.completeWithError(e);
+            } finally {
+                close();
+            }
+        }
+
+        private void send(List<BookChange> changes, boolean reset) throws IOException {
+            long sequence = cursor - changes.size();
+            if (reset) {
+                resets.incrementAndGet();
+                emitter.send(SseEmitter.event()
+                        .id(token(sequence))
+                        .name(RESET_EVENT)
+                        .data("", MediaType.TEXT_PLAIN));
+            }
+            for (BookChange change : changes) {
+                emitter.send(SseEmitter.event()
+                        .id(token(++sequence))
+                        .name(CHANGE_EVENT)
+                        .data(change, MediaType.APPLICATION_JSON));
+            }
+            if (!reset && changes.isEmpty()) {
+                emitter.send(SseEmitter.event().comment("keep-alive"));
+            }
+        }
+
+        private void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rohianon.library.event;
+
+import com.rohianon.library.entity.Book;
+
+public record BookChangedEvent(ChangeType type, Long id, Book book) {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    public static BookChangedEvent created(Book book) {
+        return new BookChangedEvent(ChangeType.CREATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent updated(Book book) {
+        return new BookChangedEvent(ChangeType.UPDATED, book.getId(), book);
+    }
+
+    public static BookChangedEvent deleted(Long id) {
+        return new BookChangedEvent(ChangeType.DELETED, id, null);
+    }
+}
@@ -0,0 +1,8 @@
+package com.rohianon.library.exception;
+
+public class QueueFullException extends RuntimeException {
+
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,35 @@
+package com.rohianon.library.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pulls book records one at a time from an import file, so only the current
+ * chunk is ever held in memory.
+ */
+public interface BookRecordReader extends Closeable {
+
+    /**
+     * Returns the next record, or {@code null} once the input is exhausted.
+     */
+    ParsedRow next() throws IOException;
+
+    default List<ParsedRow> next(int count) throws IOException {
+        List<ParsedRow> rows = new ArrayList<>(count);
+        ParsedRow row;
+        while (rows.size() < count && (row = next()) != null) {
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    default long skip(long count) throws IOException {
+        long skipped = 0;
+        while (skipped < count && next() != null) {
+            skipped++;
+        }
+        return skipped;
+    }
+}
@@ -0,0 +1,133 @@
+package com.rohianon.library.importer;
+
+import com.rohianon.library.entity.Book;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reads RFC 4180 CSV with a header row naming the title, author, isbn and
+ * publishedDate columns in any order. Quoted fields may contain commas, escaped
+ * quotes and line breaks.
+ */
+public class CsvBookReader implements BookRecordReader {
+
+    private static final List<String> REQUIRED_COLUMNS = List.of("title", "author", "isbn", "publisheddate");
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private int pushedBack = -2;
+
+    public CsvBookReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new IOException("CSV file is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().replace("_", "").toLowerCase(Locale.ROOT), i);
+        }
+        List<String> missing = REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+        if (!missing.isEmpty()) {
+            throw new IOException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+    }
+
+    @Override
+    public ParsedRow next() throws IOException {
+        List<String> fields;
+        do {
+            fields = readRecord();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.getFirst().isBlank());
+
+        Book book = new Book();
+        book.setTitle(field(fields, "title"));
+        book.setAuthor(field(fields, "author"));
+        book.setIsbn(field(fields, "isbn"));
+        String publishedDate = field(fields, "publisheddate");
+        if (publishedDate != null && !publishedDate.isBlank()) {
+            try {
+                book.setPublishedDate(LocalDate.parse(publishedDate.trim()));
+            } catch (DateTimeParseException e) {
+                return ParsedRow.failed("publishedDate: '" + publishedDate + "' is not a YYYY-MM-DD date");
+            }
+        }
+        return ParsedRow.of(book);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String field(List<String> fields, String column) {
+        int index = columns.get(column);
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    private List<String> readRecord() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field");
+                }
+                if (c == '"') {
+                    int following = read();
+                    if (following == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                break;
+            } else if (c == '\r') {
+                int following = read();
+                if (following != '\n') {
+                    pushedBack = following;
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+}
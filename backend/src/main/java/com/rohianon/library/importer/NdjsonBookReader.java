@@ -0,0 +1,41 @@
+package com.rohianon.library.importer;
+
+import com.rohianon.library.entity.Book;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public class NdjsonBookReader implements BookRecordReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+
+    public NdjsonBookReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public ParsedRow next() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+        } while (line.isBlank());
+
+        try {
+            return ParsedRow.of(objectMapper.readValue(line, Book.class));
+        } catch (JacksonException e) {
+            return ParsedRow.failed("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
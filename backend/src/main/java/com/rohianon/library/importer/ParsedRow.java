@@ -0,0 +1,14 @@
+package com.rohianon.library.importer;
+
+import com.rohianon.library.entity.Book;
+
+public record ParsedRow(Book book, String error) {
+
+    public static ParsedRow of(Book book) {
+        return new ParsedRow(book, null);
+    }
+
+    public static ParsedRow failed(String error) {
+        return new ParsedRow(null, error);
+    }
+}
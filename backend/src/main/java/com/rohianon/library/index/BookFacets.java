@@ -0,0 +1,219 @@
+package com.rohianon.library.index;
+
+import com.rohianon.library.DTOs.Facets;
+import com.rohianon.library.DTOs.Facets.FacetCount;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Book counts per author and per publication decade, adjusted on every change
+ * rather than aggregated on read. Authors are kept ranked by count, so the top
+ * authors and all decades are read without touching individual books.
+ *
+ * <p>Each book's author and decade are remembered, packed into one {@code long},
+ * so updates and deletes can take back what the book counted before, and so the
+ * matches of a search can be tallied without going to the database. An author
+ * whose last book goes is forgotten, and its slot is reused for the next new one.
+ */
+@Slf4j
+@Component
+public class BookFacets implements BookIndexer {
+
+    private static final long MISSING = -1;
+    private static final int NO_DECADE = Integer.MIN_VALUE;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final LongLongHashMap facetsById = new LongLongHashMap();
+    private final Map<String, Integer> authorIds = new HashMap<>();
+    private final List<String> authors = new ArrayList<>();
+    private final ArrayDeque<Integer> freeAuthors = new ArrayDeque<>();
+    private int[] authorCounts = new int[16];
+    private final TreeSet<Integer> rankedAuthors = new TreeSet<>(Comparator
+            .comparingInt((Integer author) -> authorCounts[author]).reversed()
+            .thenComparing(authors::get));
+    private final NavigableMap<Integer, Integer> decadeCounts = new TreeMap<>();
+
+    @Override
+    public void add(Book book) {
+        put(book);
+    }
+
+    @Override
+    public void loaded() {
+        log.info("Facets built for {} books, {} authors and {} decades",
+                facetsById.size(), rankedAuthors.size(), decadeCounts.size());
+    }
+
+    @Override
+    public void onBookChanged(BookChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> put(event.book());
+            case DELETED -> remove(event.id());
+        }
+    }
+
+    /** Counts over the whole catalog, with at most {@code authorLimit} authors. */
+    public Facets facets(int authorLimit) {
+        lock.readLock().lock();
+        try {
+            List<FacetCount> topAuthors = new ArrayList<>(Math.min(authorLimit, rankedAuthors.size()));
+            for (int author : rankedAuthors) {
+                if (topAuthors.size() == authorLimit) {
+                    break;
+                }
+                topAuthors.add(new FacetCount(authors.get(author), authorCounts[author]));
+            }
+            List<FacetCount> decades = new ArrayList<>(decadeCounts.size());
+            decadeCounts.forEach((decade, count) -> decades.add(new FacetCount(decadeLabel(decade), count)));
+            return new Facets(facetsById.size(), topAuthors, decades);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Tallies the facets of a set of books, such as the matches of a search. */
+    public Tally tally() {
+        return new Tally();
+    }
+
+    private void put(Book book) {
+        long id = book.getId();
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            int author = authorIds.computeIfAbsent(book.getAuthor(), this::newAuthor);
+            if (author == authorCounts.length) {
+                authorCounts = Arrays.copyOf(authorCounts, authorCounts.length * 2);
+            }
+            int decade = decade(book.getPublishedDate());
+            count(author, decade, 1);
+            facetsById.put(id, pack(author, decade), MISSING);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int newAuthor(String name) {
+        Integer free = freeAuthors.poll();
+        if (free != null) {
+            authors.set(free, name);
+            return free;
+        }
+        authors.add(name);
+        return authors.size() - 1;
+    }
+
+    private void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeUnlocked(long id) {
+        long packed = facetsById.remove(id, MISSING);
+        if (packed != MISSING) {
+            count(authorOf(packed), decadeOf(packed), -1);
+        }
+    }
+
+    private void count(int author, int decade, int delta) {
+        rankedAuthors.remove(author);
+        authorCounts[author] += delta;
+        if (authorCounts[author] > 0) {
+            rankedAuthors.add(author);
+        } else {
+            authorIds.remove(authors.get(author));
+            authors.set(author, null);
+            freeAuthors.push(author);
+        }
+        if (decade != NO_DECADE) {
+            decadeCounts.merge(decade, delta, (count, change) -> count + change == 0 ? null : count + change);
+        }
+    }
+
+    private static int decade(LocalDate publishedDate) {
+        return publishedDate == null ? NO_DECADE : Math.floorDiv(publishedDate.getYear(), 10) * 10;
+    }
+
+    private static String decadeLabel(int decade) {
+        return decade + "s";
+    }
+
+    private static long pack(int author, int decade) {
+        return (long) author << 32 | (decade & 0xFFFFFFFFL);
+    }
+
+    private static int authorOf(long packed) {
+        return (int) (packed >>> 32);
+    }
+
+    private static int decadeOf(long packed) {
+        return (int) packed;
+    }
+
+    /**
+     * Counts per author and decade for the books passed to {@link #add}. Costs a
+     * lookup per book and, when read, a sort of the authors that were seen. Each
+     * book counts under the author it had when added, named right away, since its
+     * slot may be freed and given to another author before the tally is read.
+     */
+    public final class Tally {
+
+        private final Map<String, Long> byAuthor = new HashMap<>();
+        private final NavigableMap<Integer, Long> byDecade = new TreeMap<>();
+        private long total;
+
+        private Tally() {
+        }
+
+        public void add(long id) {
+            long packed;
+            String author;
+            lock.readLock().lock();
+            try {
+                packed = facetsById.get(id, MISSING);
+                if (packed == MISSING) {
+                    return;
+                }
+                author = authors.get(authorOf(packed));
+            } finally {
+                lock.readLock().unlock();
+            }
+            total++;
+            byAuthor.merge(author, 1L, Long::sum);
+            if (decadeOf(packed) != NO_DECADE) {
+                byDecade.merge(decadeOf(packed), 1L, Long::sum);
+            }
+        }
+
+        public Facets facets(int authorLimit) {
+            List<FacetCount> topAuthors = new ArrayList<>(byAuthor.size());
+            byAuthor.forEach((author, count) -> topAuthors.add(new FacetCount(author, count)));
+            topAuthors.sort(Comparator.comparingLong(FacetCount::count).reversed()
+                    .thenComparing(FacetCount::value));
+            List<FacetCount> decades = new ArrayList<>(byDecade.size());
+            byDecade.forEach((decade, count) -> decades.add(new FacetCount(decadeLabel(decade), count)));
+            return new Facets(total, List.copyOf(topAuthors.subList(0, Math.min(authorLimit, topAuthors.size()))),
+                    decades);
+        }
+    }
+}
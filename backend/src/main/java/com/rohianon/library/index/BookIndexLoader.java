@@ -0,0 +1,138 @@
+package com.rohianon.library.index;
+
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import com.rohianon.library.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Reads the books table once at startup, as unmanaged rows, and hands each row
+ * to every {@link BookIndexer}. Readiness is only reported once this returns.
+ *
+ * <p>The server is already taking requests while the table is read, so changes
+ * committed meanwhile are held back and applied after the last row: a row read
+ * late can never overwrite a newer change. From then on changes go straight to
+ * the indexers.
+ *
+ * <p>If the table cannot be read, the held-back changes are dropped, readiness
+ * is refused and startup fails: the indexes are incomplete and stay that way.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookIndexLoader {
+
+    private final BookRepository bookRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final List<BookIndexer> indexers;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private final Object pendingLock = new Object();
+    private List<BookChangedEvent> pending = new ArrayList<>();
+    private volatile boolean failed;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long start = System.nanoTime();
+        AtomicLong books = new AtomicLong();
+        int replayed;
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<Book> rows = bookRepository.streamAllDetached()) {
+                    rows.forEach(book -> {
+                        for (BookIndexer indexer : indexers) {
+                            indexer.add(book);
+                        }
+                        books.incrementAndGet();
+                    });
+                }
+            });
+            replayed = applyPending();
+            indexers.forEach(BookIndexer::loaded);
+        } catch (RuntimeException | Error e) {
+            fail();
+            throw new IllegalStateException("Could not load the books into the indexes after " + books.get()
+                    + " rows", e);
+        }
+        loaded.countDown();
+        log.info("Loaded {} books into {} indexes in {} ms, then {} changes made meanwhile", books.get(),
+                indexers.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), replayed);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookChanged(BookChangedEvent event) {
+        synchronized (pendingLock) {
+            if (pending != null) {
+                pending.add(event);
+                return;
+            }
+        }
+        if (!failed) {
+            apply(event);
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded.getCount() == 0;
+    }
+
+    /** True once the load has failed; the indexes will never be complete. */
+    public boolean isFailed() {
+        return failed;
+    }
+
+    /** Waits up to {@code timeout} for the load to finish; false if it has not. */
+    public boolean awaitLoaded(Duration timeout) throws InterruptedException {
+        return loaded.await(timeout.toNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    /** Applies the held-back changes, including those that arrive meanwhile, then stops holding them back. */
+    private int applyPending() {
+        int applied = 0;
+        while (true) {
+            List<BookChangedEvent> changes;
+            synchronized (pendingLock) {
+                changes = pending;
+                if (changes.isEmpty()) {
+                    pending = null;
+                    return applied;
+                }
+                pending = new ArrayList<>();
+            }
+            changes.forEach(this::apply);
+            applied += changes.size();
+        }
+    }
+
+    /** Stops holding changes back, drops those held so far and refuses traffic. */
+    private void fail() {
+        synchronized (pendingLock) {
+            failed = true;
+            pending = null;
+        }
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+    }
+
+    private void apply(BookChangedEvent event) {
+        for (BookIndexer indexer : indexers) {
+            indexer.onBookChanged(event);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rohianon.library.index;
+
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+
+/**
+ * An in-memory structure derived from the books table. {@link BookIndexLoader}
+ * fills every indexer from one pass over the table at startup; afterwards it
+ * hands each committed {@link BookChangedEvent} to every indexer, holding back
+ * those committed during the pass until the pass is over.
+ */
+public interface BookIndexer {
+
+    void add(Book book);
+
+    /**
+     * Applies a committed change. A change held back during the load may repeat
+     * what the load already read, so creating a book that is present replaces it.
+     */
+    void onBookChanged(BookChangedEvent event);
+
+    default void loaded() {
+    }
+}
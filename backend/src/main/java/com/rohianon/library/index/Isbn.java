@@ -0,0 +1,76 @@
+package com.rohianon.library.index;
+
+public final class Isbn {
+
+    public static final long NOT_AN_ISBN = -1;
+
+    private static final long ISBN_10_PREFIX = 978_000_000_000L;
+
+    private Isbn() {
+    }
+
+    /**
+     * Maps an ISBN-10 or ISBN-13, with or without hyphens and spaces, to the
+     * twelve-digit EAN-13 body shared by both forms. The check digit is verified
+     * and then dropped, so values differing only in it never share a key.
+     * Returns {@link #NOT_AN_ISBN} for anything else. Allocates nothing.
+     */
+    public static long key(String isbn) {
+        if (isbn == null) {
+            return NOT_AN_ISBN;
+        }
+        long digits = 0;
+        int count = 0;
+        boolean checkX = false;
+        for (int i = 0; i < isbn.length(); i++) {
+            char c = isbn.charAt(i);
+            if (c == '-' || c == ' ') {
+                continue;
+            }
+            if (checkX) {
+                return NOT_AN_ISBN;
+            }
+            if (c >= '0' && c <= '9') {
+                if (++count > 13) {
+                    return NOT_AN_ISBN;
+                }
+                digits = digits * 10 + (c - '0');
+            } else if ((c == 'X' || c == 'x') && count == 9) {
+                checkX = true;
+                count++;
+            } else {
+                return NOT_AN_ISBN;
+            }
+        }
+        if (count == 10) {
+            long body = checkX ? digits : digits / 10;
+            int check = checkX ? 10 : (int) (digits % 10);
+            return isbn10CheckHolds(body, check) ? ISBN_10_PREFIX + body : NOT_AN_ISBN;
+        }
+        if (count == 13) {
+            long body = digits / 10;
+            long prefix = body / 1_000_000_000L;
+            return (prefix == 978 || prefix == 979) && ean13CheckHolds(body, (int) (digits % 10))
+                    ? body : NOT_AN_ISBN;
+        }
+        return NOT_AN_ISBN;
+    }
+
+    /** Digits weighted 10 down to 1, check digit last, sum to a multiple of 11. */
+    private static boolean isbn10CheckHolds(long body, int check) {
+        int sum = check;
+        for (int weight = 2; weight <= 10; weight++, body /= 10) {
+            sum += (int) (body % 10) * weight;
+        }
+        return sum % 11 == 0;
+    }
+
+    /** Digits weighted alternately 1 and 3 from the left sum to a multiple of 10. */
+    private static boolean ean13CheckHolds(long body, int check) {
+        int sum = check;
+        for (int position = 0; position < 12; position++, body /= 10) {
+            sum += (int) (body % 10) * (position % 2 == 0 ? 3 : 1);
+        }
+        return sum % 10 == 0;
+    }
+}
@@ -0,0 +1,98 @@
+package com.rohianon.library.index;
+
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.OptionalLong;
+
+/**
+ * In-memory ISBN to book id index. ISBN-10 and ISBN-13 spellings of the same book
+ * normalize to one {@code long} key, and both directions are stored in primitive
+ * hash maps, so a lookup costs a few array reads and no allocation.
+ *
+ * <p>Values that are not ISBN-shaped are not indexed; callers fall back to the
+ * database for those.
+ */
+@Slf4j
+@Component
+public class IsbnIndex implements BookIndexer {
+
+    private static final long MISSING = -1;
+
+    private final LongLongHashMap idsByKey = new LongLongHashMap();
+    private final LongLongHashMap keysById = new LongLongHashMap();
+
+    @Override
+    public void add(Book book) {
+        put(book.getId(), book.getIsbn());
+    }
+
+    @Override
+    public void loaded() {
+        log.info("ISBN index built with {} entries ({} KiB)", size(), memoryBytes() / 1024);
+    }
+
+    @Override
+    public void onBookChanged(BookChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> put(event.id(), event.book().getIsbn());
+            case DELETED -> remove(event.id());
+        }
+    }
+
+    public static boolean isIndexable(String isbn) {
+        return Isbn.key(isbn) != Isbn.NOT_AN_ISBN;
+    }
+
+    /**
+     * Returns the id of the book with this ISBN (in either form), or empty when no
+     * such book exists or the value is not an ISBN.
+     */
+    public OptionalLong findId(String isbn) {
+        long key = Isbn.key(isbn);
+        if (key == Isbn.NOT_AN_ISBN) {
+            return OptionalLong.empty();
+        }
+        long id = idsByKey.get(key, MISSING);
+        return id == MISSING ? OptionalLong.empty() : OptionalLong.of(id);
+    }
+
+    /**
+     * Whether a book other than {@code id} already holds this ISBN. Pass a null id
+     * for books that have not been saved yet.
+     */
+    public boolean isTakenByOther(String isbn, Long id) {
+        OptionalLong existing = findId(isbn);
+        return existing.isPresent() && (id == null || existing.getAsLong() != id);
+    }
+
+    public int size() {
+        return idsByKey.size();
+    }
+
+    public long memoryBytes() {
+        return idsByKey.memoryBytes() + keysById.memoryBytes();
+    }
+
+    private synchronized void put(long id, String isbn) {
+        removeUnlocked(id);
+        long key = Isbn.key(isbn);
+        if (key != Isbn.NOT_AN_ISBN) {
+            idsByKey.put(key, id, MISSING);
+            keysById.put(id, key, MISSING);
+        }
+    }
+
+    private synchronized void remove(long id) {
+        removeUnlocked(id);
+    }
+
+    private void removeUnlocked(long id) {
+        long key = keysById.remove(id, MISSING);
+        if (key != MISSING && idsByKey.get(key, MISSING) == id) {
+            idsByKey.remove(key, MISSING);
+        }
+    }
+}
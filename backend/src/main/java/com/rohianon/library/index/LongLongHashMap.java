@@ -0,0 +1,189 @@
+package com.rohianon.library.index;
+
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Open-addressing hash map from {@code long} to {@code long} with linear probing
+ * and backward-shift deletion, so lookups never box and the table never fills
+ * with tombstones. Keys must not be {@code 0}, which marks an empty slot.
+ *
+ * <p>Reads are lock-free in the common case (optimistic {@link StampedLock}
+ * reads), falling back to a shared lock only when they race a writer.
+ */
+public final class LongLongHashMap {
+
+    private static final long EMPTY = 0;
+    private static final int MIN_CAPACITY = 16;
+
+    private final StampedLock lock = new StampedLock();
+    private long[] keys;
+    private long[] values;
+    private int size;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public LongLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(MIN_CAPACITY, expectedSize * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new long[capacity];
+    }
+
+    public long get(long key, long missingValue) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            long[] currentKeys = keys;
+            long[] currentValues = values;
+            // A resize may be half-published; only trust arrays of matching size.
+            if (currentKeys.length == currentValues.length) {
+                long value = find(currentKeys, currentValues, key, missingValue);
+                if (lock.validate(stamp)) {
+                    return value;
+                }
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return find(keys, values, key, missingValue);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Returns the previous value, or {@code missingValue} if the key was absent.
+     */
+    public long put(long key, long value, long missingValue) {
+        checkKey(key);
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); ; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    long previous = values[slot];
+                    values[slot] = value;
+                    return previous;
+                }
+                if (keys[slot] == EMPTY) {
+                    keys[slot] = key;
+                    values[slot] = value;
+                    if (++size * 4 > keys.length * 3) {
+                        resize(keys.length << 1);
+                    }
+                    return missingValue;
+                }
+            }
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Returns the removed value, or {@code missingValue} if the key was absent.
+     */
+    public long remove(long key, long missingValue) {
+        checkKey(key);
+        long stamp = lock.writeLock();
+        try {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (keys[slot] != key) {
+                if (keys[slot] == EMPTY) {
+                    return missingValue;
+                }
+                slot = (slot + 1) & mask;
+            }
+            long removed = values[slot];
+            // Shift later members of the probe run back into the hole so that
+            // lookups never stop early at an empty slot.
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = slot(keys[next], mask);
+                boolean homeBetweenHoleAndNext = hole <= next
+                        ? hole < home && home <= next
+                        : hole < home || home <= next;
+                if (!homeBetweenHoleAndNext) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = EMPTY;
+            values[hole] = 0;
+            size--;
+            return removed;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public int size() {
+        long stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Approximate heap footprint of the two slot arrays.
+     */
+    public long memoryBytes() {
+        long stamp = lock.readLock();
+        try {
+            return (long) keys.length * Long.BYTES * 2;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private static long find(long[] keys, long[] values, long key, long missingValue) {
+        int mask = keys.length - 1;
+        int slot = slot(key, mask);
+        for (int probes = 0; probes < keys.length; probes++) {
+            long candidate = keys[slot];
+            if (candidate == key) {
+                return values[slot];
+            }
+            if (candidate == EMPTY) {
+                return missingValue;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return missingValue;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        long[] oldValues = values;
+        long[] newKeys = new long[capacity];
+        long[] newValues = new long[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+            if (key != EMPTY) {
+                int slot = slot(key, mask);
+                while (newKeys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                newKeys[slot] = key;
+                newValues[slot] = oldValues[i];
+            }
+        }
+        keys = newKeys;
+        values = newValues;
+    }
+
+    private static int slot(long key, int mask) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("0 cannot be used as a key");
+        }
+    }
+}
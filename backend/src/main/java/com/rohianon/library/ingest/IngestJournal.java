@@ -0,0 +1,224 @@
+package com.rohianon.library.ingest;
+
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.entity.IngestCheckpoint;
+import com.rohianon.library.repository.IngestCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import tools.jackson.core.JacksonException;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal behind the durable ingest queue. Accepted books are written
+ * as JSON lines to numbered segment files and forced to disk before the request
+ * is answered; concurrent appends share one force. The position up to which the
+ * journal has reached the books table is an {@link IngestCheckpoint} committed
+ * with each group, so a restart replays exactly the entries after it.
+ *
+ * <p>Every start writes to a new segment. A segment is also closed once all of its
+ * entries are committed and it has grown past the size limit, and segment files
+ * are deleted when the checkpoint has moved beyond them.
+ */
+@Slf4j
+public class IngestJournal implements Closeable {
+
+    private static final Pattern SEGMENT_FILE = Pattern.compile("ingest-(\\d+)\\.ndjson");
+
+    private record Entry(String ticket, Book book, Instant acceptedAt) {
+    }
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final IngestCheckpointRepository checkpointRepository;
+    private final long segmentSize;
+    private final Object syncLock = new Object();
+
+    private long segment;
+    private FileChannel channel;
+    private long segmentBytes;
+    private long appended;
+    private long committed;
+    private long oldestSegment;
+    private long written;
+    private volatile long synced;
+
+    public IngestJournal(Path directory, ObjectMapper objectMapper, IngestCheckpointRepository checkpointRepository,
+                         long segmentSize) {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.checkpointRepository = checkpointRepository;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * Reads the entries that were accepted but not committed before the last
+     * shutdown, oldest first, and opens a new segment for further appends. A
+     * partly written last line, left by a crash in the middle of an append, is
+     * skipped: it was never acknowledged.
+     */
+    public synchronized List<QueuedBook> recover() throws IOException {
+        Files.createDirectories(directory);
+        IngestCheckpoint checkpoint = checkpointRepository.findById(IngestCheckpoint.JOURNAL)
+                .orElseGet(() -> new IngestCheckpoint(IngestCheckpoint.JOURNAL, 0, 0));
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = SEGMENT_FILE.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    segments.put(Long.parseLong(matcher.group(1)), file);
+                }
+            });
+        }
+
+        List<QueuedBook> pending = new ArrayList<>();
+        oldestSegment = checkpoint.getSegment();
+        for (var segmentFile : segments.entrySet()) {
+            long number = segmentFile.getKey();
+            if (number < checkpoint.getSegment()) {
+                Files.delete(segmentFile.getValue());
+                continue;
+            }
+            oldestSegment = Math.min(oldestSegment, number);
+            long skip = number == checkpoint.getSegment() ? checkpoint.getEntries() : 0;
+            readSegment(number, segmentFile.getValue(), skip, pending);
+        }
+
+        segment = Math.max(checkpoint.getSegment(), segments.isEmpty() ? 0 : segments.lastKey()) + 1;
+        openSegment();
+        if (!pending.isEmpty()) {
+            log.info("Replaying {} queued books from the ingest journal", pending.size());
+        }
+        return pending;
+    }
+
+    /**
+     * Writes the book to the current segment and returns it with its place in the
+     * journal. The entry is not durable until {@link #sync(long)} has been called
+     * with a {@link #position()} read after this returned.
+     */
+    public synchronized QueuedBook append(String ticket, Book book, Instant acceptedAt) throws IOException {
+        byte[] line = objectMapper.writeValueAsBytes(new Entry(ticket, book, acceptedAt));
+        ByteBuffer buffer = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        segmentBytes += line.length + 1;
+        written += line.length + 1;
+        return new QueuedBook(ticket, book, acceptedAt, segment, appended++);
+    }
+
+    public synchronized long position() {
+        return written;
+    }
+
+    /**
+     * Forces everything appended up to {@code position} to disk. A caller that
+     * finds its bytes already forced by another returns without waiting for a
+     * force of its own.
+     */
+    public void sync(long position) throws IOException {
+        synchronized (syncLock) {
+            if (synced >= position) {
+                return;
+            }
+            FileChannel current;
+            long target;
+            synchronized (this) {
+                current = channel;
+                target = written;
+            }
+            try {
+                current.force(false);
+            } catch (ClosedChannelException e) {
+                // The segment was closed after everything in it had been committed
+            }
+            synced = Math.max(synced, target);
+        }
+    }
+
+    /**
+     * Records, inside the caller's transaction, that every entry up to and
+     * including {@code last} has been written to the books table.
+     */
+    public void checkpoint(QueuedBook last) {
+        checkpointRepository.save(new IngestCheckpoint(IngestCheckpoint.JOURNAL, last.segment(), last.entry() + 1));
+    }
+
+    /** Called once the transaction that saved the checkpoint for {@code last} has committed. */
+    public synchronized void committed(QueuedBook last) throws IOException {
+        for (; oldestSegment < last.segment(); oldestSegment++) {
+            Files.deleteIfExists(segmentPath(oldestSegment));
+        }
+        if (last.segment() != segment) {
+            return;
+        }
+        committed = last.entry() + 1;
+        if (committed == appended && segmentBytes >= segmentSize) {
+            channel.close();
+            synced = written;
+            segment++;
+            openSegment();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.force(false);
+        channel.close();
+    }
+
+    private void readSegment(long number, Path file, long skip, List<QueuedBook> pending) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long entry = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (entry >= skip) {
+                    Entry read;
+                    try {
+                        read = objectMapper.readValue(line, Entry.class);
+                    } catch (JacksonException e) {
+                        log.warn("Ignoring unreadable entry {} of ingest journal segment {}", entry, file, e);
+                        break;
+                    }
+                    pending.add(new QueuedBook(read.ticket(), read.book(), read.acceptedAt(), number, entry));
+                }
+                entry++;
+            }
+        }
+    }
+
+    private void openSegment() throws IOException {
+        channel = FileChannel.open(segmentPath(segment),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segmentBytes = 0;
+        appended = 0;
+        committed = 0;
+        // Make the new file's directory entry durable as well
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException e) {
+            log.debug("Cannot force directory {}", directory, e);
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve("ingest-%09d.ndjson".formatted(number));
+    }
+}
@@ -0,0 +1,12 @@
+package com.rohianon.library.ingest;
+
+import com.rohianon.library.entity.Book;
+
+import java.time.Instant;
+
+/**
+ * A book accepted for write-behind creation. With a durable queue, segment and
+ * entry locate it in the journal; otherwise both are zero.
+ */
+public record QueuedBook(String ticket, Book book, Instant acceptedAt, long segment, long entry) {
+}
@@ -1,4 +1,37 @@
 package com.rohianon.library.mapper;
 
-public class BookMapper {
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.entity.Book;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Builds {@link BookResponse}s as a constructor projection, so the SELECT lists
+ * only the requested columns and no entity is ever loaded.
+ */
+public final class BookMapper {
+
+    private BookMapper() {
+    }
+
+    public static CompoundSelection<BookResponse> select(CriteriaBuilder cb, Root<Book> book, Set<BookField> fields) {
+        return cb.construct(BookResponse.class,
+                book.get("id"),
+                column(cb, book, fields, BookField.TITLE, String.class),
+                column(cb, book, fields, BookField.AUTHOR, String.class),
+                column(cb, book, fields, BookField.ISBN, String.class),
+                column(cb, book, fields, BookField.PUBLISHED_DATE, LocalDate.class),
+                book.get("version"));
+    }
+
+    private static <T> Selection<T> column(CriteriaBuilder cb, Root<Book> book, Set<BookField> fields,
+                                           BookField field, Class<T> type) {
+        return fields.contains(field) ? book.get(field.property()) : cb.nullLiteral(type);
+    }
 }
@@ -0,0 +1,48 @@
+package com.rohianon.library.repository;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookFilter;
+import com.rohianon.library.DTOs.BookResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Queries that select {@link BookResponse}s directly, limited to the requested
+ * fields, without going through the persistence context, and the filtered bulk
+ * delete, whose SQL is likewise built from the filters that are set.
+ */
+public interface BookProjectionRepository {
+
+    Page<BookResponse> findResponses(Set<BookField> fields, Pageable pageable);
+
+    /**
+     * Up to {@code limit} books that sort after {@code after} (the values of the sort
+     * properties of the last row already seen), or from the start when it is empty.
+     * The sort must be ascending.
+     */
+    List<BookResponse> findResponsesAfter(Set<BookField> fields, Map<String, ?> after, Sort sort, int limit);
+
+    /**
+     * Like {@link #findResponsesAfter}, limited to the books that pass
+     * {@code filter}. Each filter and sort is served by an index on {@code books}.
+     */
+    List<BookResponse> findResponsesMatching(Set<BookField> fields, BookFilter filter, Map<String, ?> after, Sort sort,
+                                             int limit);
+
+    List<BookResponse> findResponsesById(Set<BookField> fields, Collection<Long> ids);
+
+    Stream<BookResponse> streamResponses(Set<BookField> fields);
+
+    /**
+     * Deletes up to {@code limit} books that pass {@code filter} and returns their
+     * ids. The delete is bounded by an index on one of the filters that are set.
+     */
+    List<Long> deleteMatchingReturningIds(BookFilter filter, int limit);
+}
@@ -0,0 +1,142 @@
+package com.rohianon.library.repository;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookFilter;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.mapper.BookMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+class BookProjectionRepositoryImpl implements BookProjectionRepository {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<BookResponse> findResponses(Set<BookField> fields, Pageable pageable) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookResponse> query = cb.createQuery(BookResponse.class);
+        Root<Book> book = query.from(Book.class);
+        query.select(BookMapper.select(cb, book, fields))
+                .orderBy(QueryUtils.toOrders(pageable.getSortOr(Sort.by("id")), book, cb));
+        List<BookResponse> content = entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        return PageableExecutionUtils.getPage(content, pageable, this::count);
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public List<BookResponse> findResponsesAfter(Set<BookField> fields, Map<String, ?> after, Sort sort, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookResponse> query = cb.createQuery(BookResponse.class);
+        Root<Book> book = query.from(Book.class);
+        query.select(BookMapper.select(cb, book, fields))
+                .orderBy(QueryUtils.toOrders(sort, book, cb));
+        if (!after.isEmpty()) {
+            // (k1 > v1) or (k1 = v1 and k2 > v2) or ...
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> equalSoFar = new ArrayList<>();
+            for (Sort.Order order : sort) {
+                Comparable value = (Comparable) after.get(order.getProperty());
+                List<Predicate> alternative = new ArrayList<>(equalSoFar);
+                alternative.add(cb.greaterThan(book.<Comparable>get(order.getProperty()), value));
+                alternatives.add(cb.and(alternative.toArray(Predicate[]::new)));
+                equalSoFar.add(cb.equal(book.get(order.getProperty()), value));
+            }
+            query.where(cb.or(alternatives.toArray(Predicate[]::new)));
+        }
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public List<BookResponse> findResponsesMatching(Set<BookField> fields, BookFilter filter, Map<String, ?> after,
+                                                    Sort sort, int limit) {
+        BookQuerySql.Statement statement = BookQuerySql.build(fields, filter, after, sort, limit);
+        Query query = entityManager.createNativeQuery(statement.sql());
+        statement.parameters().forEach(query::setParameter);
+        List<?> rows = query.getResultList();
+        List<BookResponse> books = new ArrayList<>(rows.size());
+        for (Object result : rows) {
+            Object[] row = (Object[]) result;
+            books.add(new BookResponse(((Number) row[0]).longValue(), (String) row[1], (String) row[2],
+                    (String) row[3], localDate(row[4]), ((Number) row[5]).longValue()));
+        }
+        return books;
+    }
+
+    @Override
+    public List<BookResponse> findResponsesById(Set<BookField> fields, Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookResponse> query = cb.createQuery(BookResponse.class);
+        Root<Book> book = query.from(Book.class);
+        query.select(BookMapper.select(cb, book, fields))
+                .where(book.get("id").in(ids));
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public Stream<BookResponse> streamResponses(Set<BookField> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookResponse> query = cb.createQuery(BookResponse.class);
+        Root<Book> book = query.from(Book.class);
+        query.select(BookMapper.select(cb, book, fields))
+                .orderBy(cb.asc(book.get("id")));
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    @Override
+    public List<Long> deleteMatchingReturningIds(BookFilter filter, int limit) {
+        BookQuerySql.Statement statement = BookQuerySql.delete(filter, limit);
+        Query query = entityManager.createNativeQuery(statement.sql());
+        statement.parameters().forEach(query::setParameter);
+        List<?> rows = query.getResultList();
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (Object id : rows) {
+            ids.add(((Number) id).longValue());
+        }
+        return ids;
+    }
+
+    private static LocalDate localDate(Object value) {
+        return value instanceof Date date ? date.toLocalDate() : (LocalDate) value;
+    }
+
+    private long count() {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        query.select(cb.count(query.from(Book.class)));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,167 @@
+package com.rohianon.library.repository;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookFilter;
+import org.springframework.data.domain.Sort;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * Native SQL for a filtered, keyset-paginated read of books and for a filtered
+ * bulk delete. Only the filters that are set appear in the WHERE clause, never
+ * as {@code :x is null or ...} alternatives, so the database can bound an index
+ * scan with each of them. The ISBN prefix becomes a range for the same reason.
+ * With any filter set, a read holds H2 to the indexes that can bound a scan
+ * with one.
+ */
+final class BookQuerySql {
+
+    private static final Map<String, String> COLUMNS = Map.of(
+            "id", "id",
+            "title", "title",
+            "author", "author",
+            "isbn", "isbn",
+            "publishedDate", "published_date");
+
+    record Statement(String sql, Map<String, Object> parameters) {
+    }
+
+    private BookQuerySql() {
+    }
+
+    /**
+     * Selects id, title, author, ISBN, published date and version in that order,
+     * with unselected fields as nulls. Those nulls keep their column's name, so
+     * the ORDER BY names the table's columns explicitly.
+     */
+    static Statement build(Set<BookField> fields, BookFilter filter, Map<String, ?> after, Sort sort, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringJoiner where = where(filter, parameters);
+        if (!after.isEmpty()) {
+            where.add(keyset(sort, after, parameters));
+        }
+
+        StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+        for (Sort.Order order : sort) {
+            orderBy.add("b." + column(order.getProperty()) + (order.isAscending() ? " asc" : " desc"));
+        }
+        parameters.put("limit", limit);
+        String sql = "select id, "
+                + selected(fields, BookField.TITLE, "varchar") + ", "
+                + selected(fields, BookField.AUTHOR, "varchar") + ", "
+                + selected(fields, BookField.ISBN, "varchar") + ", "
+                + selected(fields, BookField.PUBLISHED_DATE, "date") + ", "
+                + "version from books b" + indexHint(filter) + where + orderBy + " fetch first :limit rows only";
+        return new Statement(sql, parameters);
+    }
+
+    /**
+     * Deletes up to {@code limit} books that pass {@code filter} and selects their
+     * ids. With no ORDER BY or cursor to compete, H2 picks an index on a filter
+     * without a hint, which its DELETE would not take anyway.
+     */
+    static Statement delete(BookFilter filter, int limit) {
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        StringJoiner where = where(filter, parameters);
+        parameters.put("limit", limit);
+        String sql = "select id from old table (delete from books" + where + " fetch first :limit rows only)";
+        return new Statement(sql, parameters);
+    }
+
+    private static StringJoiner where(BookFilter filter, Map<String, Object> parameters) {
+        StringJoiner where = new StringJoiner(" and ", " where ", "").setEmptyValue("");
+        if (filter.author() != null) {
+            where.add("author = :author");
+            parameters.put("author", filter.author());
+        }
+        if (filter.publishedFrom() != null) {
+            where.add("published_date >= :publishedFrom");
+            parameters.put("publishedFrom", filter.publishedFrom());
+        }
+        if (filter.publishedTo() != null) {
+            where.add("published_date <= :publishedTo");
+            parameters.put("publishedTo", filter.publishedTo());
+        }
+        if (filter.isbnPrefix() != null) {
+            where.add("isbn >= :isbnFrom");
+            parameters.put("isbnFrom", filter.isbnPrefix());
+            String upper = successor(filter.isbnPrefix());
+            if (upper != null) {
+                where.add("isbn < :isbnTo");
+                parameters.put("isbnTo", upper);
+            }
+        }
+        return where;
+    }
+
+    /**
+     * {@code (k1 > v1) or (k1 = v1 and k2 > v2) or ...}, led by {@code k1 >= v1}
+     * so that an index on the first sort column can start at the cursor instead of
+     * filtering every row before it. The sort must be ascending.
+     */
+    private static String keyset(Sort sort, Map<String, ?> after, Map<String, Object> parameters) {
+        StringJoiner alternatives = new StringJoiner(" or ", "(", ")");
+        StringJoiner equalSoFar = new StringJoiner(" and ");
+        String leading = null;
+        int key = 0;
+        for (Sort.Order order : sort) {
+            String column = column(order.getProperty());
+            String parameter = "after" + key++;
+            parameters.put(parameter, after.get(order.getProperty()));
+            String greater = column + " > :" + parameter;
+            alternatives.add(equalSoFar.length() == 0 ? greater : "(" + equalSoFar + " and " + greater + ")");
+            equalSoFar.add(column + " = :" + parameter);
+            if (leading == null) {
+                leading = column + " >= :" + parameter;
+            }
+        }
+        return key == 1 ? alternatives.toString() : leading + " and " + alternatives;
+    }
+
+    /**
+     * Otherwise a filter that bounds only one side costs H2 about as much as the
+     * cursor does, and it may start from the cursor in a sort index or the primary
+     * key instead, reading every row the filter rejects on the way.
+     */
+    private static String indexHint(BookFilter filter) {
+        StringJoiner indexes = new StringJoiner(", ", " use index (", ")").setEmptyValue("");
+        if (filter.author() != null) {
+            indexes.add("idx_books_author_id").add("idx_books_author_published_date_id");
+        }
+        if (filter.publishedFrom() != null || filter.publishedTo() != null) {
+            indexes.add("idx_books_published_date_id");
+        }
+        if (filter.isbnPrefix() != null) {
+            indexes.add("idx_books_isbn");
+        }
+        return indexes.toString();
+    }
+
+    private static String selected(Set<BookField> fields, BookField field, String type) {
+        String column = column(field.property());
+        return fields.contains(field) ? column : "cast(null as " + type + ") as " + column;
+    }
+
+    private static String column(String property) {
+        String column = COLUMNS.get(property);
+        if (column == null) {
+            throw new IllegalArgumentException("No column for property '" + property + "'");
+        }
+        return column;
+    }
+
+    /** The least string greater than every string starting with {@code prefix}, or null if there is none. */
+    private static String successor(String prefix) {
+        int end = prefix.length();
+        while (end > 0 && prefix.charAt(end - 1) == Character.MAX_VALUE) {
+            end--;
+        }
+        if (end == 0) {
+            return null;
+        }
+        return prefix.substring(0, end - 1) + (char) (prefix.charAt(end - 1) + 1);
+    }
+}
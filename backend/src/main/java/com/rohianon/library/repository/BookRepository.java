@@ -1,20 +1,72 @@
 package com.rohianon.library.repository;
 
 import com.rohianon.library.entity.Book;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookProjectionRepository {
 
     Optional<Book> findByIsbn(String isbn);
 
+    @Query("select b.isbn from Book b where b.isbn in :isbns")
+    List<String> findExistingIsbns(Collection<String> isbns);
+
     List<Book> findByTitleContainingIgnoreCase(String title);
 
     List<Book> findByAuthorContainingIgnoreCase(String author);
 
     List<Book> findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(String title, String author);
+
+    /**
+     * Applies the non-null arguments to one book in a single statement and returns
+     * the row as it was written, or nothing when no row has that id (and, if given,
+     * that version).
+     */
+    @Query(value = """
+            select * from final table (
+                update books set
+                    title = coalesce(cast(:title as varchar), title),
+                    author = coalesce(cast(:author as varchar), author),
+                    isbn = coalesce(cast(:isbn as varchar), isbn),
+                    published_date = coalesce(cast(:publishedDate as date), published_date),
+                    version = version + 1
+                where id = :id and (cast(:version as bigint) is null or version = :version))
+            """, nativeQuery = true)
+    Optional<Book> patch(Long id, Long version, String title, String author, String isbn, LocalDate publishedDate);
+
+    @Query(value = """
+            select * from final table (
+                update books set
+                    title = coalesce(cast(:title as varchar), title),
+                    author = coalesce(cast(:author as varchar), author),
+                    published_date = coalesce(cast(:publishedDate as date), published_date),
+                    version = version + 1
+                where id in :ids)
+            """, nativeQuery = true)
+    List<Book> patchAll(Collection<Long> ids, String title, String author, LocalDate publishedDate);
+
+    @Query(value = "select id from old table (delete from books where id in :ids)", nativeQuery = true)
+    List<Long> deleteAllByIdReturningIds(Collection<Long> ids);
+
+    /**
+     * Every book as a plain object outside the persistence context, for bulk reads
+     * that never write back.
+     */
+    @Query("""
+            select new com.rohianon.library.entity.Book(b.id, b.title, b.author, b.isbn, b.publishedDate, b.version)
+            from Book b
+            """)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<Book> streamAllDetached();
 }
@@ -0,0 +1,29 @@
+package com.rohianon.library.repository;
+
+import com.rohianon.library.entity.ImportJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ImportJobRepository extends JpaRepository<ImportJob, String> {
+
+    List<ImportJob> findByStatusIn(List<ImportJob.Status> statuses);
+
+    /**
+     * Moves a job from status {@code from} to {@code to}, clearing its last error,
+     * in a single statement, and returns the row as it was written, or nothing when
+     * the job is not in {@code from}. Of two concurrent calls, only one matches.
+     */
+    @Transactional
+    @Query(value = """
+            select * from final table (
+                update import_jobs set status = :to, last_error = null
+                where id = :id and status = :from)
+            """, nativeQuery = true)
+    Optional<ImportJob> transition(String id, String from, String to);
+}
@@ -0,0 +1,9 @@
+package com.rohianon.library.repository;
+
+import com.rohianon.library.entity.IngestCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IngestCheckpointRepository extends JpaRepository<IngestCheckpoint, String> {
+}
@@ -0,0 +1,352 @@
+package com.rohianon.library.search;
+
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import com.rohianon.library.index.BookIndexer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongConsumer;
+
+/**
+ * In-process inverted index over title, author and ISBN. Queries only touch the
+ * posting lists of their terms, so latency depends on how selective the query
+ * is rather than on the size of the catalog.
+ *
+ * <p>Fuzzy queries first expand each word to the indexed words within a small
+ * edit distance, found through {@link TermGrams}, and then read the posting
+ * lists of those words.
+ */
+@Slf4j
+@Component
+public class BookSearchIndex implements BookIndexer {
+
+    private static final float TITLE_BOOST = 2.0f;
+    private static final float AUTHOR_BOOST = 1.5f;
+    private static final float ISBN_BOOST = 4.0f;
+
+    private static final Comparator<Hit> WORST_FIRST = Comparator
+            .comparingDouble(Hit::score)
+            .thenComparing(Comparator.comparingLong(Hit::id).reversed());
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, String[]> documentTerms = new HashMap<>();
+    private final TermGrams termGrams = new TermGrams();
+
+    @Override
+    public void add(Book book) {
+        index(book);
+    }
+
+    @Override
+    public void loaded() {
+        log.info("Search index built with {} books and {} terms, {} of them fuzzy", size(), termCount(),
+                fuzzyTermCount());
+    }
+
+    @Override
+    public void onBookChanged(BookChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> index(event.book());
+            case DELETED -> remove(event.id());
+        }
+    }
+
+    public void index(Book book) {
+        Map<String, Float> weights = new LinkedHashMap<>();
+        for (String term : Tokenizer.tokenize(book.getTitle())) {
+            weights.merge(term, TITLE_BOOST, Float::sum);
+        }
+        for (String term : Tokenizer.tokenize(book.getAuthor())) {
+            weights.merge(term, AUTHOR_BOOST, Float::sum);
+        }
+        String isbn = Tokenizer.isbnTerm(book.getIsbn());
+        if (!isbn.isEmpty()) {
+            weights.merge(isbn, ISBN_BOOST, Float::sum);
+        }
+
+        long id = book.getId();
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> {
+                termGrams.add(t);
+                return new PostingList();
+            }).put(id, weight));
+            documentTerms.put(id, weights.keySet().toArray(String[]::new));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchResult search(String query, int offset, int limit) {
+        return search(query, offset, limit, id -> {
+        });
+    }
+
+    /**
+     * Like {@link #search(String, int, int)}, also handing the id of every match,
+     * not just those on the requested page, to {@code matches}.
+     */
+    public SearchResult search(String query, int offset, int limit, LongConsumer matches) {
+        List<String> terms = queryTerms(query);
+        if (terms.isEmpty() || offset < 0 || limit <= 0) {
+            return SearchResult.empty();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list == null) {
+                    return SearchResult.empty();
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(PostingList::size));
+
+            double documents = documentTerms.size();
+            double[] idf = new double[lists.size()];
+            for (int i = 0; i < lists.size(); i++) {
+                idf[i] = Math.log(1 + documents / lists.get(i).size());
+            }
+
+            int wanted = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+            PriorityQueue<Hit> top = new PriorityQueue<>(WORST_FIRST);
+            long total = 0;
+            PostingList rarest = lists.getFirst();
+            candidates:
+            for (int i = 0; i < rarest.size(); i++) {
+                long id = rarest.idAt(i);
+                double score = idf[0] * rarest.weightAt(i);
+                for (int j = 1; j < lists.size(); j++) {
+                    PostingList other = lists.get(j);
+                    int index = other.indexOf(id);
+                    if (index < 0) {
+                        continue candidates;
+                    }
+                    score += idf[j] * other.weightAt(index);
+                }
+                total++;
+                matches.accept(id);
+                offer(top, new Hit(id, score), wanted);
+            }
+            return result(top, offset, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public SearchResult fuzzySearch(String query, int offset, int limit) {
+        return fuzzySearch(query, offset, limit, id -> {
+        });
+    }
+
+    /**
+     * Like {@link #search(String, int, int, LongConsumer)}, but each word of the
+     * query also matches indexed words a typo or two away. A book must match
+     * every word. Each word contributes its best match, scaled by how similar
+     * that is to what was typed, so exact matches rank above near ones.
+     */
+    public SearchResult fuzzySearch(String query, int offset, int limit, LongConsumer matches) {
+        List<String> terms = queryTerms(query);
+        if (terms.isEmpty() || offset < 0 || limit <= 0) {
+            return SearchResult.empty();
+        }
+        if (terms.size() == 1 && !TermGrams.isFuzzy(terms.getFirst())) {
+            return search(query, offset, limit, matches);
+        }
+
+        lock.readLock().lock();
+        try {
+            List<TermGroup> groups = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                TermGroup group = expand(term);
+                if (group == null) {
+                    return SearchResult.empty();
+                }
+                groups.add(group);
+            }
+            groups.sort(Comparator.comparingInt(TermGroup::postings));
+
+            double documents = documentTerms.size();
+            double[] idf = new double[groups.size()];
+            for (int i = 0; i < groups.size(); i++) {
+                idf[i] = Math.log(1 + documents / groups.get(i).postings());
+            }
+
+            int wanted = (int) Math.min(Integer.MAX_VALUE, (long) offset + limit);
+            PriorityQueue<Hit> top = new PriorityQueue<>(WORST_FIRST);
+            long total = 0;
+            TermGroup rarest = groups.getFirst();
+            for (int l = 0; l < rarest.lists().length; l++) {
+                PostingList driver = rarest.lists()[l];
+                candidates:
+                for (int i = 0; i < driver.size(); i++) {
+                    long id = driver.idAt(i);
+                    if (rarest.seenBefore(l, id)) {
+                        continue;
+                    }
+                    // No more similar spelling has the book, so this one is its best.
+                    double score = idf[0] * rarest.similarity()[l] * driver.weightAt(i);
+                    for (int j = 1; j < groups.size(); j++) {
+                        float other = groups.get(j).score(id);
+                        if (other < 0) {
+                            continue candidates;
+                        }
+                        score += idf[j] * other;
+                    }
+                    total++;
+                    matches.accept(id);
+                    offer(top, new Hit(id, score), wanted);
+                }
+            }
+            return result(top, offset, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentTerms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int fuzzyTermCount() {
+        lock.readLock().lock();
+        try {
+            return termGrams.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<String> queryTerms(String query) {
+        String isbn = Tokenizer.isbnTerm(query);
+        boolean looksLikeIsbn = (isbn.length() == 10 || isbn.length() == 13)
+                && query.replaceAll("[\\s-]", "").length() == isbn.length();
+        if (looksLikeIsbn) {
+            return List.of(isbn);
+        }
+        return List.copyOf(new LinkedHashSet<>(Tokenizer.tokenize(query)));
+    }
+
+    /** The word and its near spellings that occur in the index, or null when none do. */
+    private TermGroup expand(String term) {
+        List<TermGrams.Expansion> expansions = TermGrams.isFuzzy(term)
+                ? termGrams.expand(term)
+                : postings.containsKey(term) ? List.of(new TermGrams.Expansion(term, 1f)) : List.of();
+        if (expansions.isEmpty()) {
+            return null;
+        }
+        PostingList[] lists = new PostingList[expansions.size()];
+        float[] similarity = new float[expansions.size()];
+        int size = 0;
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(expansions.get(i).term());
+            similarity[i] = expansions.get(i).similarity();
+            size += lists[i].size();
+        }
+        return new TermGroup(lists, similarity, size);
+    }
+
+    private static void offer(PriorityQueue<Hit> top, Hit hit, int wanted) {
+        if (top.size() < wanted) {
+            top.add(hit);
+        } else if (WORST_FIRST.compare(hit, top.peek()) > 0) {
+            top.poll();
+            top.add(hit);
+        }
+    }
+
+    private static SearchResult result(PriorityQueue<Hit> top, int offset, long total) {
+        List<Hit> ranked = new ArrayList<>(top);
+        ranked.sort(WORST_FIRST.reversed());
+        List<Long> ids = ranked.stream()
+                .skip(offset)
+                .map(Hit::id)
+                .toList();
+        return new SearchResult(ids, total);
+    }
+
+    private void removeUnlocked(long id) {
+        String[] terms = documentTerms.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            PostingList list = postings.get(term);
+            if (list != null) {
+                list.remove(id);
+                if (list.size() == 0) {
+                    postings.remove(term);
+                    termGrams.remove(term);
+                }
+            }
+        }
+    }
+
+    private record Hit(long id, double score) {
+    }
+
+    /**
+     * Posting lists of a query word's spellings, most similar first, with the
+     * similarity of each. {@code postings} is their combined length.
+     */
+    private record TermGroup(PostingList[] lists, float[] similarity, int postings) {
+
+        /** The weight of the most similar spelling the book has, scaled by that similarity; -1 if it has none. */
+        float score(long id) {
+            for (int i = 0; i < lists.length; i++) {
+                int index = lists[i].indexOf(id);
+                if (index >= 0) {
+                    return similarity[i] * lists[i].weightAt(index);
+                }
+            }
+            return -1;
+        }
+
+        boolean seenBefore(int list, long id) {
+            for (int i = 0; i < list; i++) {
+                if (lists[i].indexOf(id) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
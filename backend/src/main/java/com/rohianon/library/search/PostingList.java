@@ -0,0 +1,71 @@
+package com.rohianon.library.search;
+
+import java.util.Arrays;
+
+/**
+ * Book ids containing a term, kept sorted so lists can be intersected with
+ * binary search, together with the per-book weight of the term.
+ */
+final class PostingList {
+
+    private long[] ids = new long[4];
+    private float[] weights = new float[4];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    long idAt(int index) {
+        return ids[index];
+    }
+
+    float weightAt(int index) {
+        return weights[index];
+    }
+
+    int indexOf(long id) {
+        return Arrays.binarySearch(ids, 0, size, id);
+    }
+
+    void put(long id, float weight) {
+        // Ids are allocated in increasing order, so appends are the common case.
+        if (size == 0 || ids[size - 1] < id) {
+            ensureCapacity();
+            ids[size] = id;
+            weights[size] = weight;
+            size++;
+            return;
+        }
+        int index = indexOf(id);
+        if (index >= 0) {
+            weights[index] = weight;
+            return;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity();
+        System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+        System.arraycopy(weights, insertAt, weights, insertAt + 1, size - insertAt);
+        ids[insertAt] = id;
+        weights[insertAt] = weight;
+        size++;
+    }
+
+    void remove(long id) {
+        int index = indexOf(id);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+        System.arraycopy(weights, index + 1, weights, index, size - index - 1);
+        size--;
+    }
+
+    private void ensureCapacity() {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.rohianon.library.search;
+
+import java.util.List;
+
+public record SearchResult(List<Long> ids, long total) {
+
+    public static SearchResult empty() {
+        return new SearchResult(List.of(), 0);
+    }
+}
@@ -0,0 +1,418 @@
+package com.rohianon.library.search;
+
+import com.rohianon.library.DTOs.Suggestion;
+import com.rohianon.library.DTOs.Suggestion.Kind;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import com.rohianon.library.index.BookIndexer;
+import com.rohianon.library.index.LongLongHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix suggestions over distinct titles and authors, matched case-insensitively
+ * and ranked by how many books carry the text, then by the newest publication
+ * date seen with it.
+ *
+ * <p>Entries are kept in case-insensitive order in a list of small sorted blocks,
+ * so a prefix is a contiguous run found by binary search, and a write shifts at
+ * most one block. Each block also keeps its best {@value #MAX_SUGGESTIONS}
+ * entries: blocks that lie wholly inside the run are answered from those, and
+ * only the blocks at its two ends are scanned.
+ */
+@Slf4j
+@Component
+public class SuggestIndex implements BookIndexer {
+
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final int BLOCK_SIZE = 256;
+    private static final long MISSING = -1;
+
+    private static final Comparator<Entry> KEY_ORDER = Comparator
+            .comparing((Entry entry) -> entry.text, String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(entry -> entry.kind)
+            .thenComparing(entry -> entry.text);
+
+    /** Hand-written rather than chained, since it runs once per block a query covers. */
+    private static final Comparator<Entry> BEST_FIRST = (left, right) -> {
+        if (left.books != right.books) {
+            return left.books > right.books ? -1 : 1;
+        }
+        if (left.latest != right.latest) {
+            return left.latest > right.latest ? -1 : 1;
+        }
+        return KEY_ORDER.compare(left, right);
+    };
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Block> blocks = new ArrayList<>();
+    private final LongLongHashMap entriesByBook = new LongLongHashMap();
+    private Entry[] handles = new Entry[1024];
+    private int[] freeHandles = new int[16];
+    private int freeCount;
+    private int handleCount;
+    private int size;
+
+    @Override
+    public void add(Book book) {
+        put(book);
+    }
+
+    @Override
+    public void loaded() {
+        log.info("Suggest index built with {} titles and authors in {} blocks", size(), blockCount());
+    }
+
+    @Override
+    public void onBookChanged(BookChangedEvent event) {
+        switch (event.type()) {
+            case CREATED, UPDATED -> put(event.book());
+            case DELETED -> remove(event.id());
+        }
+    }
+
+    public void put(Book book) {
+        long id = book.getId();
+        int day = book.getPublishedDate() == null ? Integer.MIN_VALUE : (int) book.getPublishedDate().toEpochDay();
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            int title = acquire(book.getTitle(), Kind.TITLE, day);
+            int author = acquire(book.getAuthor(), Kind.AUTHOR, day);
+            entriesByBook.put(id, (long) title << 32 | (author & 0xFFFFFFFFL), MISSING);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * The best {@code limit} titles and authors starting with {@code prefix},
+     * ignoring case. Blank prefixes suggest nothing.
+     */
+    public List<Suggestion> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isBlank() || limit <= 0) {
+            return List.of();
+        }
+        int wanted = Math.min(limit, MAX_SUGGESTIONS);
+        PriorityQueue<Entry> best = new PriorityQueue<>(wanted, BEST_FIRST.reversed());
+
+        lock.readLock().lock();
+        try {
+            int first = firstBlockAtOrAfter(prefix);
+            int end = firstBlockAfter(prefix);
+            if (first < end) {
+                scan(blocks.get(first), prefix, best, wanted);
+            }
+            // Blocks strictly between the two ends lie wholly inside the run.
+            for (int b = first + 1; b < end - 1; b++) {
+                Block block = blocks.get(b);
+                for (int i = 0; i < block.topSize; i++) {
+                    if (!offer(best, block.top[i], wanted)) {
+                        break;
+                    }
+                }
+            }
+            if (end - 1 > first) {
+                scan(blocks.get(end - 1), prefix, best, wanted);
+            }
+
+            List<Entry> ranked = new ArrayList<>(best);
+            ranked.sort(BEST_FIRST);
+            return ranked.stream()
+                    .map(entry -> new Suggestion(entry.text, entry.kind, entry.books))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int blockCount() {
+        lock.readLock().lock();
+        try {
+            return blocks.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Adds the entry to the heap if it ranks among the best; false once it no longer does. */
+    private static boolean offer(PriorityQueue<Entry> best, Entry entry, int wanted) {
+        if (best.size() < wanted) {
+            best.add(entry);
+            return true;
+        }
+        if (BEST_FIRST.compare(entry, best.peek()) < 0) {
+            best.poll();
+            best.add(entry);
+            return true;
+        }
+        return false;
+    }
+
+    private static void scan(Block block, String prefix, PriorityQueue<Entry> best, int wanted) {
+        for (int i = block.lowerBound(prefix); i < block.size && startsWith(block.items[i], prefix); i++) {
+            offer(best, block.items[i], wanted);
+        }
+    }
+
+    private static boolean startsWith(Entry entry, String prefix) {
+        return entry.text.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    private int acquire(String text, Kind kind, int day) {
+        Entry probe = new Entry(text, kind);
+        int b = blockFor(probe);
+        if (b < 0) {
+            blocks.add(new Block());
+            b = 0;
+        }
+        Block block = blocks.get(b);
+        int index = block.indexOf(probe);
+        if (index >= 0) {
+            Entry entry = block.items[index];
+            entry.books++;
+            entry.latest = Math.max(entry.latest, day);
+            block.promoted(entry);
+            return entry.handle;
+        }
+
+        probe.books = 1;
+        probe.latest = day;
+        probe.handle = allocateHandle(probe);
+        block.insert(-index - 1, probe);
+        size++;
+        if (block.size == BLOCK_SIZE * 2) {
+            blocks.add(b + 1, block.split());
+        }
+        return probe.handle;
+    }
+
+    private void release(int handle) {
+        Entry entry = handles[handle];
+        int b = blockFor(entry);
+        Block block = blocks.get(b);
+        if (--entry.books > 0) {
+            block.demoted(entry);
+            return;
+        }
+        block.delete(block.indexOf(entry));
+        size--;
+        if (block.size == 0) {
+            blocks.remove(b);
+        }
+        handles[handle] = null;
+        if (freeCount == freeHandles.length) {
+            freeHandles = Arrays.copyOf(freeHandles, freeCount * 2);
+        }
+        freeHandles[freeCount++] = handle;
+    }
+
+    private void removeUnlocked(long id) {
+        long packed = entriesByBook.remove(id, MISSING);
+        if (packed != MISSING) {
+            release((int) (packed >>> 32));
+            release((int) packed);
+        }
+    }
+
+    private int allocateHandle(Entry entry) {
+        int handle;
+        if (freeCount > 0) {
+            handle = freeHandles[--freeCount];
+        } else {
+            if (handleCount == handles.length) {
+                handles = Arrays.copyOf(handles, handleCount * 2);
+            }
+            handle = handleCount++;
+        }
+        handles[handle] = entry;
+        return handle;
+    }
+
+    /** The last block whose first entry is not after {@code entry}, or the first block; -1 when there are none. */
+    private int blockFor(Entry entry) {
+        int low = 0;
+        int high = blocks.size() - 1;
+        if (high < 0) {
+            return -1;
+        }
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (KEY_ORDER.compare(blocks.get(middle).items[0], entry) <= 0) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    /** The block holding the first entry at or after {@code prefix}, ignoring case. */
+    private int firstBlockAtOrAfter(String prefix) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Block block = blocks.get(middle);
+            if (String.CASE_INSENSITIVE_ORDER.compare(block.items[block.size - 1].text, prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /** The first block whose first entry neither precedes nor starts with {@code prefix}, ignoring case. */
+    private int firstBlockAfter(String prefix) {
+        int low = 0;
+        int high = blocks.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            Entry head = blocks.get(middle).items[0];
+            if (String.CASE_INSENSITIVE_ORDER.compare(head.text, prefix) < 0 || startsWith(head, prefix)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static final class Entry {
+
+        private final String text;
+        private final Kind kind;
+        private int books;
+        private int latest;
+        private int handle;
+
+        private Entry(String text, Kind kind) {
+            this.text = text;
+            this.kind = kind;
+        }
+    }
+
+    /**
+     * A sorted run of entries together with its best entries, best first. The best
+     * list is adjusted in place when an entry gains a book and recomputed from the
+     * block when one it holds loses a book or goes away.
+     */
+    private static final class Block {
+
+        private Entry[] items = new Entry[BLOCK_SIZE * 2];
+        private int size;
+        private final Entry[] top = new Entry[MAX_SUGGESTIONS];
+        private int topSize;
+
+        private int indexOf(Entry entry) {
+            return Arrays.binarySearch(items, 0, size, entry, KEY_ORDER);
+        }
+
+        private int lowerBound(String prefix) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (String.CASE_INSENSITIVE_ORDER.compare(items[middle].text, prefix) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private void insert(int index, Entry entry) {
+            System.arraycopy(items, index, items, index + 1, size - index);
+            items[index] = entry;
+            size++;
+            promoted(entry);
+        }
+
+        private void delete(int index) {
+            Entry entry = items[index];
+            System.arraycopy(items, index + 1, items, index, size - index - 1);
+            items[--size] = null;
+            demoted(entry);
+        }
+
+        private void promoted(Entry entry) {
+            int at = topIndexOf(entry);
+            if (at < 0) {
+                if (topSize == top.length && BEST_FIRST.compare(entry, top[topSize - 1]) >= 0) {
+                    return;
+                }
+                at = topSize == top.length ? topSize - 1 : topSize++;
+                top[at] = entry;
+            }
+            for (; at > 0 && BEST_FIRST.compare(top[at], top[at - 1]) < 0; at--) {
+                Entry swap = top[at];
+                top[at] = top[at - 1];
+                top[at - 1] = swap;
+            }
+        }
+
+        private void demoted(Entry entry) {
+            if (topIndexOf(entry) >= 0) {
+                rebuildTop();
+            }
+        }
+
+        private Block split() {
+            Block upper = new Block();
+            int half = size / 2;
+            System.arraycopy(items, half, upper.items, 0, size - half);
+            Arrays.fill(items, half, size, null);
+            upper.size = size - half;
+            size = half;
+            rebuildTop();
+            upper.rebuildTop();
+            return upper;
+        }
+
+        private int topIndexOf(Entry entry) {
+            for (int i = 0; i < topSize; i++) {
+                if (top[i] == entry) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private void rebuildTop() {
+            Arrays.fill(top, null);
+            topSize = 0;
+            for (int i = 0; i < size; i++) {
+                promoted(items[i]);
+            }
+        }
+    }
+}
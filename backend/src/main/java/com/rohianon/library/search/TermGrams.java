@@ -0,0 +1,275 @@
+package com.rohianon.library.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trigram index over the distinct words of the search index, used to find the
+ * indexed words within a small edit distance of a misspelled one. Only words of
+ * {@value #MIN_LENGTH} or more letters are kept; numbers and ISBNs are matched
+ * exactly.
+ *
+ * <p>Words sharing fewer trigrams than an edit budget allows are never looked
+ * at: candidates come from the shortest trigram lists only, since a word within
+ * budget must appear in at least one of them. The rest are then checked by
+ * edit distance, with adjacent transpositions counted as one edit.
+ */
+final class TermGrams {
+
+    static final int MIN_LENGTH = 4;
+    static final int MAX_EXPANSIONS = 8;
+
+    /** Trigrams touched by one edit; a transposition touches four. */
+    private static final int GRAMS_PER_EDIT = 4;
+
+    private static final Comparator<Expansion> MOST_SIMILAR = Comparator
+            .comparingDouble(Expansion::similarity).reversed()
+            .thenComparing(Expansion::term);
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final Map<Long, GramList> grams = new HashMap<>();
+    private String[] terms = new String[1024];
+    private int[] freeIds = new int[16];
+    private int freeCount;
+    private int idCount;
+
+    record Expansion(String term, float similarity) {
+    }
+
+    static boolean isFuzzy(String term) {
+        if (term.length() < MIN_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < term.length(); i++) {
+            if (Character.isDigit(term.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static int maxEdits(String term) {
+        return term.length() < 8 ? 1 : 2;
+    }
+
+    int size() {
+        return ids.size();
+    }
+
+    void add(String term) {
+        if (!isFuzzy(term) || ids.containsKey(term)) {
+            return;
+        }
+        int id = allocateId(term);
+        ids.put(term, id);
+        for (long gram : gramsOf(term)) {
+            grams.computeIfAbsent(gram, g -> new GramList()).add(id);
+        }
+    }
+
+    void remove(String term) {
+        Integer id = ids.remove(term);
+        if (id == null) {
+            return;
+        }
+        for (long gram : gramsOf(term)) {
+            GramList list = grams.get(gram);
+            if (list != null) {
+                list.remove(id);
+                if (list.size == 0) {
+                    grams.remove(gram);
+                }
+            }
+        }
+        terms[id] = null;
+        if (freeCount == freeIds.length) {
+            freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        }
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * The indexed words within {@link #maxEdits} of {@code term}, the word itself
+     * included when indexed, most similar first and at most {@value #MAX_EXPANSIONS}.
+     * Similarity is one minus the edit distance over the longer length.
+     */
+    List<Expansion> expand(String term) {
+        if (!isFuzzy(term)) {
+            return List.of();
+        }
+        int edits = maxEdits(term);
+        long[] queryGrams = gramsOf(term);
+        List<GramList> lists = new ArrayList<>(queryGrams.length);
+        for (long gram : queryGrams) {
+            GramList list = grams.get(gram);
+            if (list != null) {
+                lists.add(list);
+            }
+        }
+        int minShared = Math.max(1, queryGrams.length - GRAMS_PER_EDIT * edits);
+        int probed = lists.size() - minShared + 1;
+        if (probed <= 0) {
+            return List.of();
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+
+        // The probed lists are sorted, so merging them visits each candidate once,
+        // in id order, together with the number of those lists that hold it.
+        int[] cursors = new int[probed];
+        int[][] rows = new int[3][term.length() + edits + 1];
+        List<Expansion> expansions = new ArrayList<>();
+        while (true) {
+            int id = Integer.MAX_VALUE;
+            for (int i = 0; i < probed; i++) {
+                GramList list = lists.get(i);
+                if (cursors[i] < list.size && list.ids[cursors[i]] < id) {
+                    id = list.ids[cursors[i]];
+                }
+            }
+            if (id == Integer.MAX_VALUE) {
+                break;
+            }
+            int hits = 0;
+            for (int i = 0; i < probed; i++) {
+                GramList list = lists.get(i);
+                if (cursors[i] < list.size && list.ids[cursors[i]] == id) {
+                    cursors[i]++;
+                    hits++;
+                }
+            }
+
+            String candidate = terms[id];
+            if (Math.abs(candidate.length() - term.length()) > edits
+                    || shared(hits, lists, probed, id, minShared) < minShared) {
+                continue;
+            }
+            int distance = distance(term, candidate, edits, rows);
+            if (distance <= edits) {
+                float similarity = 1f - (float) distance / Math.max(term.length(), candidate.length());
+                expansions.add(new Expansion(candidate, similarity));
+            }
+        }
+        expansions.sort(MOST_SIMILAR);
+        return expansions.size() > MAX_EXPANSIONS ? expansions.subList(0, MAX_EXPANSIONS) : expansions;
+    }
+
+    /** Trigrams shared with the word {@code id}, counted up to {@code needed}, given {@code probedHits} among the probed lists. */
+    private static int shared(int probedHits, List<GramList> lists, int probed, int id, int needed) {
+        int hits = probedHits;
+        for (int i = probed; i < lists.size() && hits < needed; i++) {
+            if (lists.get(i).contains(id)) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Optimal string alignment distance, or {@code limit + 1} as soon as it is
+     * known to exceed {@code limit}. Only cells within {@code limit} of the
+     * diagonal are computed. {@code rows} holds three rows of at least
+     * {@code right.length() + 1} cells, reused between calls.
+     */
+    static int distance(String left, String right, int limit, int[][] rows) {
+        int outside = limit + 1;
+        int[] beforePrevious = rows[0];
+        int[] previous = rows[1];
+        int[] current = rows[2];
+        for (int j = 0; j <= right.length(); j++) {
+            previous[j] = Math.min(j, outside);
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            int from = Math.max(1, i - limit);
+            int to = Math.min(right.length(), i + limit);
+            Arrays.fill(current, 0, right.length() + 1, outside);
+            current[0] = Math.min(i, outside);
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && left.charAt(i - 1) == right.charAt(j - 2)
+                        && left.charAt(i - 2) == right.charAt(j - 1)) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[right.length()], limit + 1);
+    }
+
+    /** Distinct trigrams of the word padded with two leading spaces and one trailing space. */
+    private static long[] gramsOf(String term) {
+        String padded = "  " + term + " ";
+        long[] result = new long[padded.length() - 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (long) padded.charAt(i) << 32 | (long) padded.charAt(i + 1) << 16 | padded.charAt(i + 2);
+        }
+        Arrays.sort(result);
+        int distinct = 0;
+        for (int i = 0; i < result.length; i++) {
+            if (i == 0 || result[i] != result[i - 1]) {
+                result[distinct++] = result[i];
+            }
+        }
+        return Arrays.copyOf(result, distinct);
+    }
+
+    private int allocateId(String term) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (idCount == terms.length) {
+                terms = Arrays.copyOf(terms, idCount * 2);
+            }
+            id = idCount++;
+        }
+        terms[id] = term;
+        return id;
+    }
+
+    /** Ids of the words containing a trigram, kept sorted. */
+    private static final class GramList {
+
+        private int[] ids = new int[4];
+        private int size;
+
+        private void add(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            int insertAt = -index - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+
+        private boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+
+        private void remove(int id) {
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+                size--;
+            }
+        }
+    }
+}
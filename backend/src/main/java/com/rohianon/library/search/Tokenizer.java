@@ -0,0 +1,46 @@
+package com.rohianon.library.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+public final class Tokenizer {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Pattern ISBN_NOISE = Pattern.compile("[^0-9Xx]");
+
+    private Tokenizer() {
+    }
+
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Collapses an ISBN to its bare digits (and check character) so that
+     * "978-0-7432-7356-5" and "9780743273565" produce the same term.
+     */
+    public static String isbnTerm(String isbn) {
+        if (isbn == null) {
+            return "";
+        }
+        return ISBN_NOISE.matcher(isbn).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,328 @@
+package com.rohianon.library.service;
+
+import com.rohianon.library.DTOs.BatchResult;
+import com.rohianon.library.DTOs.BatchResult.ItemResult;
+import com.rohianon.library.DTOs.BookDeleteRequest;
+import com.rohianon.library.DTOs.BookFilter;
+import com.rohianon.library.DTOs.BulkResult;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import com.rohianon.library.exception.InvalidRequestException;
+import com.rohianon.library.importer.ParsedRow;
+import com.rohianon.library.index.Isbn;
+import com.rohianon.library.index.IsbnIndex;
+import com.rohianon.library.repository.BookRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLDataException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Inserts and deletes many books at once. Inserts are validated up front, then
+ * written in chunks, each chunk in its own transaction and as batched JDBC
+ * inserts, so one bad item costs at most a retry of its chunk rather than the
+ * whole request. Failures that are not down to an item, such as a lost
+ * connection, are thrown to the caller instead of failing every item. Deletes
+ * run as set-based statements, also one chunk per transaction, and never load
+ * the books they remove.
+ */
+@Slf4j
+@Service
+public class BookBatchService {
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    private final BookRepository bookRepository;
+    private final IsbnIndex isbnIndex;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
+    private final int chunkSize;
+
+    /**
+     * Saves a caller's progress in the transaction that writes a chunk, so the
+     * progress and the rows commit or roll back together.
+     */
+    @FunctionalInterface
+    public interface Checkpoint {
+
+        /**
+         * {@code done} holds the outcome of the leading rows of the chunk that are
+         * settled once this transaction commits. It grows with each call, up to the
+         * whole chunk.
+         */
+        void save(List<ItemResult> done);
+    }
+
+    public BookBatchService(BookRepository bookRepository,
+                            IsbnIndex isbnIndex,
+                            Validator validator,
+                            TransactionTemplate transactionTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            EntityManager entityManager,
+                            @Value("${library.batch.chunk-size:500}") int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("library.batch.chunk-size must be at least 1, was " + chunkSize);
+        }
+        this.bookRepository = bookRepository;
+        this.isbnIndex = isbnIndex;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+    }
+
+    public BatchResult createBooks(List<Book> books) {
+        if (books.isEmpty() || books.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("A batch must contain between 1 and " + MAX_BATCH_SIZE + " books");
+        }
+
+        ItemResult[] results = new ItemResult[books.size()];
+        List<Integer> accepted = validate(books, results);
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            List<Integer> chunk = accepted.subList(from, Math.min(from + chunkSize, accepted.size()));
+            insertChunk(books, chunk, results, 0, settled -> {
+            });
+        }
+        return BatchResult.of(results);
+    }
+
+    /**
+     * Validates and writes one chunk of a longer load, such as an import or the
+     * ingest queue. Rows that could not be read carry their error and are
+     * reported failed. Returns the outcome of every row, in order.
+     */
+    public List<ItemResult> writeChunk(List<ParsedRow> rows, Checkpoint checkpoint) {
+        List<Book> books = new ArrayList<>(rows.size());
+        ItemResult[] results = new ItemResult[rows.size()];
+        for (int i = 0; i < rows.size(); i++) {
+            ParsedRow row = rows.get(i);
+            books.add(row.book());
+            if (row.error() != null) {
+                results[i] = ItemResult.failed(i, List.of(row.error()));
+            }
+        }
+        List<Integer> accepted = validate(books, results);
+        List<ItemResult> done = Arrays.asList(results);
+        IntConsumer save = settled -> checkpoint.save(done.subList(0, settled));
+        if (!insertChunk(books, accepted, results, rows.size(), save)) {
+            transactionTemplate.executeWithoutResult(status -> save.accept(rows.size()));
+        }
+        return List.of(results);
+    }
+
+    public BulkResult deleteBooks(BookDeleteRequest request) {
+        boolean byIds = request.ids() != null;
+        if (byIds == request.hasFilter()) {
+            throw new InvalidRequestException("Pass either ids or at least one of author, publishedFrom, publishedTo, isbnPrefix");
+        }
+        if (byIds) {
+            return deleteBooksById(request.ids());
+        }
+        if (request.publishedFrom() != null && request.publishedTo() != null
+                && request.publishedFrom().isAfter(request.publishedTo())) {
+            throw new InvalidRequestException("publishedFrom must not be after publishedTo");
+        }
+        if (request.isbnPrefix() != null && request.isbnPrefix().isBlank()) {
+            throw new InvalidRequestException("isbnPrefix must not be blank");
+        }
+        BookFilter filter = new BookFilter(request.author(), request.publishedFrom(), request.publishedTo(),
+                request.isbnPrefix());
+        long deleted = 0;
+        List<Long> chunk;
+        do {
+            chunk = deleteChunk(() -> bookRepository.deleteMatchingReturningIds(filter, chunkSize));
+            deleted += chunk.size();
+        } while (chunk.size() == chunkSize);
+        return new BulkResult(deleted);
+    }
+
+    private BulkResult deleteBooksById(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("A bulk delete must list between 1 and " + MAX_BATCH_SIZE + " ids");
+        }
+        List<Long> distinct = ids.stream().filter(Objects::nonNull).distinct().toList();
+        long deleted = 0;
+        for (int from = 0; from < distinct.size(); from += chunkSize) {
+            List<Long> chunk = distinct.subList(from, Math.min(from + chunkSize, distinct.size()));
+            deleted += deleteChunk(() -> bookRepository.deleteAllByIdReturningIds(chunk)).size();
+        }
+        return new BulkResult(deleted);
+    }
+
+    private List<Long> deleteChunk(Supplier<List<Long>> delete) {
+        return transactionTemplate.execute(status -> {
+            List<Long> deleted = delete.get();
+            deleted.forEach(id -> eventPublisher.publishEvent(BookChangedEvent.deleted(id)));
+            return deleted;
+        });
+    }
+
+    /**
+     * Writes the given items, in ascending index order, in one transaction and
+     * records their outcome. The checkpoint runs inside that same transaction with
+     * {@code settles}, the number of leading rows whose outcome is then final.
+     *
+     * <p>A chunk that fails to commit is retried item by item so the failure can be
+     * attributed. Each retried item commits with its own checkpoint, covering the
+     * rows up to the next item, so progress never runs ahead of the rows written
+     * nor falls behind them. Returns false if the last checkpoint did not commit
+     * because its item failed. Only the database refusing an item's data fails the
+     * item; any other failure is rethrown, with the checkpoint where it was.
+     */
+    private boolean insertChunk(List<Book> books, List<Integer> indexes, ItemResult[] results, int settles,
+                                IntConsumer checkpoint) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int index : persistChunk(books, indexes, results)) {
+                    results[index] = ItemResult.created(index, books.get(index).getId());
+                }
+                checkpoint.accept(settles);
+            });
+            return true;
+        } catch (PersistenceException | DataAccessException | TransactionException e) {
+            for (int index : indexes) {
+                books.get(index).setId(null);
+                results[index] = null;
+            }
+            String reason = itemFailure(e);
+            if (reason == null) {
+                throw e;
+            }
+            if (indexes.size() == 1) {
+                int index = indexes.getFirst();
+                results[index] = ItemResult.failed(index, List.of(reason));
+                return false;
+            }
+            log.debug("Batch chunk of {} books failed, retrying individually", indexes.size(), e);
+            boolean checkpointed = true;
+            for (int i = 0; i < indexes.size(); i++) {
+                int next = i + 1 < indexes.size() ? indexes.get(i + 1) : settles;
+                checkpointed = insertChunk(books, List.of(indexes.get(i)), results, next, checkpoint);
+            }
+            return checkpointed;
+        }
+    }
+
+    /**
+     * Validates every book that has no result yet. Bean validation runs in parallel;
+     * the duplicate-ISBN pass is sequential so the first occurrence wins.
+     */
+    private List<Integer> validate(List<Book> books, ItemResult[] results) {
+        List<List<String>> violations = IntStream.range(0, books.size())
+                .parallel()
+                .mapToObj(index -> results[index] != null ? List.<String>of() : violationsOf(books.get(index)))
+                .toList();
+
+        List<Integer> accepted = new ArrayList<>(books.size());
+        Set<Long> seenIsbnKeys = new HashSet<>();
+        Set<String> seenIsbns = new HashSet<>();
+        for (int index = 0; index < books.size(); index++) {
+            if (results[index] != null) {
+                continue;
+            }
+            Book book = books.get(index);
+            List<String> errors = new ArrayList<>(violations.get(index));
+            if (book != null) {
+                book.setId(null);
+                long isbnKey = Isbn.key(book.getIsbn());
+                boolean duplicate = isbnKey != Isbn.NOT_AN_ISBN
+                        ? !seenIsbnKeys.add(isbnKey)
+                        : book.getIsbn() != null && !seenIsbns.add(book.getIsbn());
+                if (duplicate) {
+                    errors.add("isbn: ISBN appears more than once in the batch");
+                }
+            }
+            if (errors.isEmpty()) {
+                accepted.add(index);
+            } else {
+                results[index] = ItemResult.failed(index, errors);
+            }
+        }
+        return accepted;
+    }
+
+    private List<String> violationsOf(Book book) {
+        if (book == null) {
+            return List.of("Book is required");
+        }
+        List<String> errors = new ArrayList<>();
+        for (ConstraintViolation<Book> violation : validator.validate(book)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        return errors;
+    }
+
+    private List<Integer> persistChunk(List<Book> books, List<Integer> indexes, ItemResult[] results) {
+        if (indexes.isEmpty()) {
+            return List.of();
+        }
+        // ISBN-shaped values are checked against the in-memory index; only the rest
+        // need a round trip.
+        List<String> unindexedIsbns = indexes.stream()
+                .map(index -> books.get(index).getIsbn())
+                .filter(isbn -> !IsbnIndex.isIndexable(isbn))
+                .toList();
+        Set<String> existingIsbns = unindexedIsbns.isEmpty()
+                ? Set.of()
+                : new HashSet<>(bookRepository.findExistingIsbns(unindexedIsbns));
+
+        List<Integer> inserted = new ArrayList<>(indexes.size());
+        for (int index : indexes) {
+            Book book = books.get(index);
+            if (existingIsbns.contains(book.getIsbn()) || isbnIndex.isTakenByOther(book.getIsbn(), null)) {
+                results[index] = ItemResult.failed(index, List.of("isbn: ISBN already exists"));
+                continue;
+            }
+            entityManager.persist(book);
+            inserted.add(index);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        inserted.forEach(index -> eventPublisher.publishEvent(BookChangedEvent.created(books.get(index))));
+        return inserted;
+    }
+
+    /**
+     * Why the database refused the data of an item, in words that do not depend on
+     * the driver, whose messages name tables, indexes and SQL. Null when the
+     * failure is not about the data, such as a lost connection or timeout.
+     */
+    private static String itemFailure(RuntimeException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLIntegrityConstraintViolationException
+                    || cause instanceof DataIntegrityViolationException) {
+                return String.valueOf(cause.getMessage()).toUpperCase(Locale.ROOT).contains("ISBN")
+                        ? "isbn: ISBN already exists"
+                        : "Conflicts with a book already stored";
+            }
+            if (cause instanceof SQLDataException) {
+                return "A value does not fit its column";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,70 @@
+package com.rohianon.library.service;
+
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Encodes a keyset scroll position as an opaque, URL-safe token so clients never
+ * depend on which columns a given sort resumes from.
+ */
+final class BookCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private BookCursor() {
+    }
+
+    static String encode(BookSort sort, BookResponse last) {
+        StringBuilder raw = new StringBuilder(sort.property())
+                .append(SEPARATOR).append(last.id());
+        if (sort != BookSort.ID) {
+            raw.append(SEPARATOR).append(sort.keyOf(last));
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The sort property values the cursor resumes after, or an empty map for the
+     * first page.
+     */
+    static Map<String, Object> decode(BookSort sort, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Map.of();
+        }
+        if (sort == BookSort.ID && cursor.chars().allMatch(Character::isDigit)) {
+            try {
+                return Map.of("id", Long.valueOf(cursor));
+            } catch (NumberFormatException e) {
+                throw new InvalidRequestException("Malformed cursor");
+            }
+        }
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Malformed cursor");
+        }
+        if (parts.length != (sort == BookSort.ID ? 2 : 3)) {
+            throw new InvalidRequestException("Malformed cursor");
+        }
+        if (!parts[0].equals(sort.property())) {
+            throw new InvalidRequestException("Cursor was not issued for sort '" + sort.property() + "'");
+        }
+        try {
+            Map<String, Object> keys = new LinkedHashMap<>();
+            if (sort != BookSort.ID) {
+                keys.put(sort.property(), sort.parseKey(parts[2]));
+            }
+            keys.put("id", Long.valueOf(parts[1]));
+            return keys;
+        } catch (RuntimeException e) {
+            throw new InvalidRequestException("Malformed cursor");
+        }
+    }
+}
@@ -1,57 +1,322 @@
 package com.rohianon.library.service;
 
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookFilter;
+import com.rohianon.library.DTOs.BookPatch;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.DTOs.FacetedPage;
+import com.rohianon.library.DTOs.Facets;
+import com.rohianon.library.DTOs.Suggestion;
+import com.rohianon.library.DTOs.BulkResult;
+import com.rohianon.library.DTOs.CursorPage;
+import com.rohianon.library.cache.BookCache;
 import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import com.rohianon.library.exception.DuplicateResourceException;
+import com.rohianon.library.exception.InvalidRequestException;
+import com.rohianon.library.exception.PreconditionFailedException;
 import com.rohianon.library.exception.ResourceNotFoundException;
+import com.rohianon.library.index.BookFacets;
+import com.rohianon.library.index.IsbnIndex;
 import com.rohianon.library.repository.BookRepository;
+import com.rohianon.library.search.BookSearchIndex;
+import com.rohianon.library.search.SearchResult;
+import com.rohianon.library.search.SuggestIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class BookService {
 
+    public static final int MAX_CURSOR_LIMIT = 1000;
+    public static final int MAX_FACET_AUTHORS = 1000;
+    public static final int MAX_SEARCH_PAGE_SIZE = 100;
+    /** Deepest search result a page may reach; ranking keeps this many hits in memory. */
+    public static final int MAX_SEARCH_RESULTS = 10_000;
+
     private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookCache bookCache;
+    private final IsbnIndex isbnIndex;
+    private final BookFacets bookFacets;
+    private final SuggestIndex suggestIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     public Book createBook(Book book) {
-        return bookRepository.save(book);
+        checkIsbnAvailable(book.getIsbn(), null);
+        Book savedBook = bookRepository.save(book);
+        eventPublisher.publishEvent(BookChangedEvent.created(savedBook));
+        return savedBook;
+    }
+
+    @Transactional(readOnly = true)
+    public List<BookResponse> getAllBooks(Set<BookField> fields) {
+        try (Stream<BookResponse> books = bookRepository.streamResponses(fields)) {
+            return books.toList();
+        }
     }
 
+    /**
+     * Hands every book to the consumer in id order. Rows are read as projections,
+     * so nothing accumulates in the persistence context however large the table.
+     */
     @Transactional(readOnly = true)
-    public List<Book> getAllBooks() {
-        return bookRepository.findAll();
+    public void streamAllBooks(Set<BookField> fields, Consumer<BookResponse> consumer) {
+        try (Stream<BookResponse> books = bookRepository.streamResponses(fields)) {
+            books.forEach(consumer);
+        }
     }
 
     @Transactional(readOnly = true)
-    public Page<Book> getAllBooks(int page, int size) {
+    public Page<BookResponse> getAllBooks(int page, int size, Set<BookField> fields) {
         PageRequest pageRequest = PageRequest.of(page, size, Sort.by("id").ascending());
-        return bookRepository.findAll(pageRequest);
+        return bookRepository.findResponses(fields, pageRequest);
     }
 
+    /**
+     * Keyset pagination. The sort property is always selected, whatever the fields,
+     * because the next cursor is built from the last row.
+     */
     @Transactional(readOnly = true)
+    public CursorPage<BookResponse> getBooksAfter(String cursor, int limit, BookSort sort, Set<BookField> fields) {
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_CURSOR_LIMIT);
+        }
+        List<BookResponse> rows = bookRepository.findResponsesAfter(sort.withKeyField(fields),
+                BookCursor.decode(sort, cursor), sort.toSort(), limit + 1);
+        return cursorPage(rows, limit, sort);
+    }
+
+    /**
+     * Keyset pagination over the books that pass the filter, read through an index
+     * for every combination of filters and sort.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BookResponse> queryBooks(BookFilter filter, String cursor, int limit, BookSort sort,
+                                               Set<BookField> fields) {
+        if (limit < 1 || limit > MAX_CURSOR_LIMIT) {
+            throw new InvalidRequestException("limit must be between 1 and " + MAX_CURSOR_LIMIT);
+        }
+        if (filter.author() != null && filter.author().isBlank()) {
+            throw new InvalidRequestException("author must not be blank");
+        }
+        if (filter.isbnPrefix() != null && filter.isbnPrefix().isBlank()) {
+            throw new InvalidRequestException("isbnPrefix must not be blank");
+        }
+        if (filter.publishedFrom() != null && filter.publishedTo() != null
+                && filter.publishedFrom().isAfter(filter.publishedTo())) {
+            throw new InvalidRequestException("publishedFrom must not be after publishedTo");
+        }
+        List<BookResponse> rows = bookRepository.findResponsesMatching(sort.withKeyField(fields), filter,
+                BookCursor.decode(sort, cursor), sort.toSort(), limit + 1);
+        return cursorPage(rows, limit, sort);
+    }
+
+    /**
+     * Ranked search, tolerating misspelled words when {@code fuzzy} is set. With an
+     * author limit the page also carries the facets of all matches, tallied while
+     * the index walks them.
+     */
+    @Transactional(readOnly = true)
+    public Page<BookResponse> searchBooks(String query, int page, int size, Set<BookField> fields,
+                                          Integer facetAuthors, boolean fuzzy) {
+        checkSearchPage(page, size);
+        if (facetAuthors != null) {
+            checkFacetAuthors(facetAuthors);
+        }
+        PageRequest pageRequest = PageRequest.of(page, size);
+        BookFacets.Tally tally = facetAuthors == null ? null : bookFacets.tally();
+        LongConsumer matches = tally == null ? id -> {
+        } : tally::add;
+        SearchResult result = fuzzy
+                ? bookSearchIndex.fuzzySearch(query, (int) pageRequest.getOffset(), size, matches)
+                : bookSearchIndex.search(query, (int) pageRequest.getOffset(), size, matches);
+        Map<Long, BookResponse> booksById = bookRepository.findResponsesById(fields, result.ids()).stream()
+                .collect(Collectors.toMap(BookResponse::id, Function.identity()));
+        List<BookResponse> books = result.ids().stream()
+                .map(booksById::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return tally == null
+                ? new PageImpl<>(books, pageRequest, result.total())
+                : new FacetedPage<>(books, pageRequest, result.total(), tally.facets(facetAuthors));
+    }
+
+    /**
+     * Book counts per author (the {@code authors} largest) and per decade, read from
+     * counters kept current on every write.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Facets getFacets(int authors) {
+        return bookFacets.facets(checkFacetAuthors(authors));
+    }
+
+    /** Titles and authors starting with the prefix, served from memory for type-ahead. */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return suggestIndex.suggest(prefix, checkSuggestionLimit(limit));
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public Book getBookById(Long id) {
-        return bookRepository.findById(id)
+        return bookCache.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
     }
 
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Book getBookByIsbn(String isbn) {
+        Optional<Book> book;
+        if (IsbnIndex.isIndexable(isbn)) {
+            OptionalLong id = isbnIndex.findId(isbn);
+            book = id.isPresent() ? bookCache.findById(id.getAsLong()) : Optional.empty();
+        } else {
+            book = bookCache.findByIsbn(isbn);
+        }
+        return book.orElseThrow(() -> new ResourceNotFoundException("Book not found with isbn: " + isbn));
+    }
+
     public Book updateBook(Long id, Book bookDetails) {
-        Book book = getBookById(id);
+        return updateBook(id, bookDetails, current -> true);
+    }
+
+    /**
+     * Updates the book only if {@code precondition} accepts its current state, which
+     * is how callers implement If-Match. The version check at flush still catches
+     * writers that race in between.
+     */
+    public Book updateBook(Long id, Book bookDetails, Predicate<Book> precondition) {
+        checkIsbnAvailable(bookDetails.getIsbn(), id);
+        Book book = findBook(id);
+        if (!precondition.test(book)) {
+            throw new PreconditionFailedException("Book " + id + " has been modified since it was read");
+        }
         book.setTitle(bookDetails.getTitle());
         book.setAuthor(bookDetails.getAuthor());
         book.setIsbn(bookDetails.getIsbn());
         book.setPublishedDate(bookDetails.getPublishedDate());
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.saveAndFlush(book);
+        eventPublisher.publishEvent(BookChangedEvent.updated(savedBook));
+        return savedBook;
+    }
+
+    public Book patchBook(Long id, BookPatch patch) {
+        return patchBook(id, patch, null);
+    }
+
+    /**
+     * Applies the patch with one UPDATE that returns the written row, so nothing is
+     * loaded first. With an {@code expectedVersion} the update only matches that
+     * version; the existence check that tells 404 from 412 runs only on a miss.
+     */
+    public Book patchBook(Long id, BookPatch patch, Long expectedVersion) {
+        if (patch.isEmpty()) {
+            throw new InvalidRequestException("A patch must change at least one field");
+        }
+        if (patch.isbn() != null) {
+            checkIsbnAvailable(patch.isbn(), id);
+        }
+        Optional<Book> patched = bookRepository.patch(id, expectedVersion,
+                patch.title(), patch.author(), patch.isbn(), patch.publishedDate());
+        if (patched.isEmpty()) {
+            if (expectedVersion != null && bookRepository.existsById(id)) {
+                throw new PreconditionFailedException("Book " + id + " has been modified since it was read");
+            }
+            throw new ResourceNotFoundException("Book not found with id: " + id);
+        }
+        eventPublisher.publishEvent(BookChangedEvent.updated(patched.get()));
+        return patched.get();
+    }
+
+    /**
+     * Applies the same change to every listed book in one UPDATE and returns how many
+     * rows it touched; ids that do not exist are skipped. ISBNs are unique, so they
+     * cannot be patched in bulk.
+     */
+    public BulkResult patchBooks(List<Long> ids, BookPatch patch) {
+        if (ids.size() > BookBatchService.MAX_BATCH_SIZE) {
+            throw new InvalidRequestException("A bulk patch may list at most " + BookBatchService.MAX_BATCH_SIZE + " ids");
+        }
+        if (patch.isbn() != null) {
+            throw new InvalidRequestException("isbn cannot be patched in bulk");
+        }
+        if (patch.isEmpty()) {
+            throw new InvalidRequestException("A patch must change at least one field");
+        }
+        List<Book> patched = bookRepository.patchAll(new LinkedHashSet<>(ids),
+                patch.title(), patch.author(), patch.publishedDate());
+        patched.forEach(book -> eventPublisher.publishEvent(BookChangedEvent.updated(book)));
+        return new BulkResult(patched.size());
     }
 
     public void deleteBook(Long id) {
-        Book book = getBookById(id);
+        Book book = findBook(id);
         bookRepository.delete(book);
+        eventPublisher.publishEvent(BookChangedEvent.deleted(id));
+    }
+
+    private void checkIsbnAvailable(String isbn, Long id) {
+        if (isbnIndex.isTakenByOther(isbn, id)) {
+            throw new DuplicateResourceException("ISBN already exists: " + isbn);
+        }
+    }
+
+    private static CursorPage<BookResponse> cursorPage(List<BookResponse> rows, int limit, BookSort sort) {
+        boolean hasNext = rows.size() > limit;
+        List<BookResponse> content = hasNext ? rows.subList(0, limit) : rows;
+        String nextCursor = hasNext ? BookCursor.encode(sort, content.getLast()) : null;
+        return new CursorPage<>(content, limit, nextCursor, hasNext);
+    }
+
+    private static int checkSuggestionLimit(int limit) {
+        if (limit < 1 || limit > SuggestIndex.MAX_SUGGESTIONS) {
+            throw new InvalidRequestException("limit must be between 1 and " + SuggestIndex.MAX_SUGGESTIONS);
+        }
+        return limit;
+    }
+
+    private static void checkSearchPage(int page, int size) {
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new InvalidRequestException("size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        if (page < 0 || (long) (page + 1) * size > MAX_SEARCH_RESULTS) {
+            throw new InvalidRequestException("page must be between 0 and " + (MAX_SEARCH_RESULTS / size - 1)
+                    + " for size " + size);
+        }
+    }
+
+    private static int checkFacetAuthors(int authors) {
+        if (authors < 0 || authors > MAX_FACET_AUTHORS) {
+            throw new InvalidRequestException("authors must be between 0 and " + MAX_FACET_AUTHORS);
+        }
+        return authors;
+    }
+
+    private Book findBook(Long id) {
+        return bookRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Book not found with id: " + id));
     }
 }
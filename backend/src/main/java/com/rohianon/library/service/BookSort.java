@@ -0,0 +1,81 @@
+package com.rohianon.library.service;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.exception.InvalidRequestException;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public enum BookSort {
+
+    ID("id", null),
+    TITLE("title", BookField.TITLE),
+    AUTHOR("author", BookField.AUTHOR),
+    PUBLISHED_DATE("publishedDate", BookField.PUBLISHED_DATE);
+
+    private final String property;
+    private final BookField field;
+
+    BookSort(String property, BookField field) {
+        this.property = property;
+        this.field = field;
+    }
+
+    public String property() {
+        return property;
+    }
+
+    public static BookSort fromParameter(String value) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.property.equalsIgnoreCase(value))
+                .findFirst()
+                .orElseThrow(() -> new InvalidRequestException("Unsupported sort '" + value + "', expected one of: "
+                        + Arrays.stream(values()).map(BookSort::property).collect(Collectors.joining(", "))));
+    }
+
+    /**
+     * The id tiebreaker makes every ordering total, which is what lets a cursor
+     * resume exactly where the previous page ended.
+     */
+    public Sort toSort() {
+        if (this == ID) {
+            return Sort.by("id").ascending();
+        }
+        return Sort.by(property).ascending().and(Sort.by("id").ascending());
+    }
+
+    /**
+     * The selected fields plus the one this sort orders by, which a cursor needs to
+     * resume from.
+     */
+    Set<BookField> withKeyField(Set<BookField> fields) {
+        if (field == null || fields.contains(field)) {
+            return fields;
+        }
+        Set<BookField> withKey = EnumSet.of(field);
+        withKey.addAll(fields);
+        return withKey;
+    }
+
+    Object keyOf(BookResponse book) {
+        return switch (this) {
+            case ID -> book.id();
+            case TITLE -> book.title();
+            case AUTHOR -> book.author();
+            case PUBLISHED_DATE -> book.publishedDate();
+        };
+    }
+
+    Object parseKey(String value) {
+        return switch (this) {
+            case ID -> Long.valueOf(value);
+            case TITLE, AUTHOR -> value;
+            case PUBLISHED_DATE -> LocalDate.parse(value);
+        };
+    }
+}
@@ -0,0 +1,243 @@
+package com.rohianon.library.service;
+
+import com.rohianon.library.DTOs.BatchResult.ItemResult;
+import com.rohianon.library.DTOs.ImportJobStatus;
+import com.rohianon.library.entity.ImportJob;
+import com.rohianon.library.exception.InvalidRequestException;
+import com.rohianon.library.exception.ResourceNotFoundException;
+import com.rohianon.library.importer.BookRecordReader;
+import com.rohianon.library.importer.CsvBookReader;
+import com.rohianon.library.importer.NdjsonBookReader;
+import com.rohianon.library.importer.ParsedRow;
+import com.rohianon.library.repository.ImportJobRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs catalog imports in the background. The upload is spooled to disk, then
+ * read back one chunk at a time; each chunk is validated in parallel and
+ * committed together with the job's checkpoint, so a failed or interrupted job
+ * can resume from the first row that was not committed. The spooled file is
+ * kept while the job can still be resumed and deleted once it completes.
+ */
+@Slf4j
+@Service
+public class ImportService {
+
+    private static final int MAX_RECORDED_ERRORS = 100;
+    /** The length of {@code last_error} and of each recorded row error. */
+    private static final int MAX_ERROR_LENGTH = 1024;
+
+    private final ImportJobRepository importJobRepository;
+    private final BookBatchService bookBatchService;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int chunkSize;
+    private final ExecutorService executor;
+
+    public ImportService(ImportJobRepository importJobRepository,
+                         BookBatchService bookBatchService,
+                         ObjectMapper objectMapper,
+                         @Value("${library.import.directory}") Path directory,
+                         @Value("${library.batch.chunk-size:500}") int chunkSize,
+                         @Value("${library.import.max-concurrent-jobs:2}") int maxConcurrentJobs) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("library.batch.chunk-size must be at least 1, was " + chunkSize);
+        }
+        this.importJobRepository = importJobRepository;
+        this.bookBatchService = bookBatchService;
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.executor = Executors.newFixedThreadPool(maxConcurrentJobs, Thread.ofPlatform().name("import-", 1).factory());
+    }
+
+    public ImportJobStatus startImport(MultipartFile file, String format) throws IOException {
+        if (file.isEmpty()) {
+            throw new InvalidRequestException("Import file is empty");
+        }
+        ImportJob job = new ImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setFileName(file.getOriginalFilename());
+        job.setFormat(resolveFormat(format, file));
+        job.setStatus(ImportJob.Status.QUEUED);
+        job.setCreatedAt(Instant.now());
+
+        Files.createDirectories(directory);
+        Path storedPath = directory.resolve(job.getId() + "." + job.getFormat().name().toLowerCase(Locale.ROOT));
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, storedPath, StandardCopyOption.REPLACE_EXISTING);
+        }
+        job.setStoredPath(storedPath.toString());
+
+        ImportJob saved;
+        try {
+            saved = importJobRepository.save(job);
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(storedPath);
+            throw e;
+        }
+        executor.execute(() -> run(saved.getId()));
+        return ImportJobStatus.from(saved);
+    }
+
+    public ImportJobStatus resumeImport(String jobId) {
+        ImportJob job = importJobRepository.transition(jobId, ImportJob.Status.FAILED.name(), ImportJob.Status.QUEUED.name())
+                .orElseThrow(() -> new InvalidRequestException(
+                        "Only failed imports can be resumed; job is " + findJob(jobId).getStatus()));
+        executor.execute(() -> run(job.getId()));
+        return ImportJobStatus.from(job);
+    }
+
+    public ImportJobStatus getStatus(String jobId) {
+        return ImportJobStatus.from(findJob(jobId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() {
+        for (ImportJob job : importJobRepository.findByStatusIn(List.of(ImportJob.Status.QUEUED, ImportJob.Status.RUNNING))) {
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setLastError("Interrupted by shutdown; resume to continue from row " + (job.getRowsProcessed() + 1));
+            importJobRepository.save(job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(String jobId) {
+        ImportJob job = findJob(jobId);
+        job.setStatus(ImportJob.Status.RUNNING);
+        job.setRunStartRow(job.getRowsProcessed());
+        job.setRunStartedAt(Instant.now());
+        job.setFinishedAt(null);
+        job = importJobRepository.save(job);
+
+        try (BookRecordReader reader = openReader(job)) {
+            reader.skip(job.getRowsProcessed());
+            List<ParsedRow> rows;
+            while (!(rows = reader.next(chunkSize)).isEmpty()) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedException();
+                }
+                job = importChunk(job, rows);
+            }
+            job.setStatus(ImportJob.Status.COMPLETED);
+        } catch (InterruptedException e) {
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setLastError("Interrupted by shutdown; resume to continue from row " + (job.getRowsProcessed() + 1));
+        } catch (Exception e) {
+            // The job may hold progress from a checkpoint that rolled back; resume
+            // from the last one that committed.
+            job = importJobRepository.findById(jobId).orElse(job);
+            log.warn("Import {} failed after {} rows", jobId, job.getRowsProcessed(), e);
+            job.setStatus(ImportJob.Status.FAILED);
+            job.setLastError(truncate(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
+        }
+        job.setFinishedAt(Instant.now());
+        importJobRepository.save(job);
+        if (job.getStatus() == ImportJob.Status.COMPLETED) {
+            deleteUpload(job);
+        }
+    }
+
+    private static void deleteUpload(ImportJob job) {
+        try {
+            Files.deleteIfExists(Path.of(job.getStoredPath()));
+        } catch (IOException e) {
+            log.warn("Could not delete the upload of import {} at {}", job.getId(), job.getStoredPath(), e);
+        }
+    }
+
+    private ImportJob importChunk(ImportJob job, List<ParsedRow> rows) {
+        // The checkpoint may run more than once if the chunk has to be retried item
+        // by item, so it sets absolute values derived from the state before this chunk.
+        long rowsProcessed = job.getRowsProcessed();
+        long rowsImported = job.getRowsImported();
+        long rowsFailed = job.getRowsFailed();
+        List<String> errors = List.copyOf(job.getErrors());
+        ImportJob[] checkpointed = {job};
+        bookBatchService.writeChunk(rows, done -> {
+            List<String> chunkErrors = new ArrayList<>(errors);
+            int created = 0;
+            for (ItemResult result : done) {
+                if (result.isCreated()) {
+                    created++;
+                } else if (chunkErrors.size() < MAX_RECORDED_ERRORS) {
+                    chunkErrors.add(truncate("row " + (rowsProcessed + result.index() + 1) + ": "
+                            + String.join("; ", result.errors())));
+                }
+            }
+            job.setErrors(chunkErrors);
+            job.setRowsProcessed(rowsProcessed + done.size());
+            job.setRowsImported(rowsImported + created);
+            job.setRowsFailed(rowsFailed + done.size() - created);
+            checkpointed[0] = importJobRepository.save(job);
+        });
+        return checkpointed[0];
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH - 1) + "…";
+    }
+
+    private BookRecordReader openReader(ImportJob job) throws IOException {
+        BufferedReader reader = Files.newBufferedReader(Path.of(job.getStoredPath()), StandardCharsets.UTF_8);
+        try {
+            return switch (job.getFormat()) {
+                case CSV -> new CsvBookReader(reader);
+                case NDJSON -> new NdjsonBookReader(reader, objectMapper);
+            };
+        } catch (IOException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    private ImportJob findJob(String jobId) {
+        return importJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Import job not found with id: " + jobId));
+    }
+
+    private static ImportJob.Format resolveFormat(String format, MultipartFile file) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return ImportJob.Format.valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new InvalidRequestException("Unsupported import format '" + format + "', expected csv or ndjson");
+            }
+        }
+        String name = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase(Locale.ROOT);
+        String contentType = file.getContentType() == null ? "" : file.getContentType();
+        if (name.endsWith(".ndjson") || name.endsWith(".jsonl") || contentType.contains("ndjson")) {
+            return ImportJob.Format.NDJSON;
+        }
+        if (name.endsWith(".csv") || contentType.contains("csv")) {
+            return ImportJob.Format.CSV;
+        }
+        throw new InvalidRequestException("Cannot infer import format from '" + name + "'; pass format=csv or format=ndjson");
+    }
+}
@@ -0,0 +1,369 @@
+package com.rohianon.library.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rohianon.library.DTOs.BatchResult.ItemResult;
+import com.rohianon.library.DTOs.IngestStatus;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.exception.DuplicateResourceException;
+import com.rohianon.library.exception.QueueFullException;
+import com.rohianon.library.exception.ResourceNotFoundException;
+import com.rohianon.library.importer.ParsedRow;
+import com.rohianon.library.index.BookIndexLoader;
+import com.rohianon.library.index.IsbnIndex;
+import com.rohianon.library.ingest.IngestJournal;
+import com.rohianon.library.ingest.QueuedBook;
+import com.rohianon.library.repository.IngestCheckpointRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.unit.DataSize;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind creation of single books. Accepted books wait in a bounded queue
+ * and one writer thread commits them in groups through
+ * {@link BookBatchService#writeChunk}, as soon as a group is full or its oldest
+ * book has waited {@code max-delay}. A full queue turns new books away rather
+ * than letting the backlog grow. A group the database cannot take for now, such
+ * as while it is unreachable, is retried with backoff until it commits. Books
+ * whose own data is refused are marked failed, and so are the books not yet
+ * stored when a group fails for any other reason. Statuses are kept for
+ * {@code status-ttl}, up to {@code status-capacity} of them.
+ *
+ * <p>Without a durable queue, books still queued are lost if the process dies;
+ * a graceful shutdown drains the queue first. With one, every book is in the
+ * {@link IngestJournal} on disk before it is acknowledged.
+ */
+@Slf4j
+@Service
+public class IngestService implements MeterBinder {
+
+    private static final long INITIAL_BACKOFF_MILLIS = 100;
+    private static final long MAX_BACKOFF_MILLIS = 10_000;
+
+    private final BookBatchService bookBatchService;
+    private final IsbnIndex isbnIndex;
+    private final BookIndexLoader bookIndexLoader;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration maxDelay;
+    private final BlockingQueue<QueuedBook> queue;
+    private final Cache<String, IngestStatus> statuses;
+    private final IngestJournal journal;
+    private final Object appendLock = new Object();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong committedBooks = new AtomicLong();
+    private final AtomicLong committedGroups = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private volatile boolean accepting;
+    private Thread writer;
+
+    public IngestService(BookBatchService bookBatchService,
+                         IsbnIndex isbnIndex,
+                         BookIndexLoader bookIndexLoader,
+                         IngestCheckpointRepository checkpointRepository,
+                         ObjectMapper objectMapper,
+                         @Value("${library.ingest.enabled:false}") boolean enabled,
+                         @Value("${library.ingest.queue-capacity:10000}") int queueCapacity,
+                         @Value("${library.ingest.batch-size:500}") int batchSize,
+                         @Value("${library.ingest.max-delay:50ms}") Duration maxDelay,
+                         @Value("${library.ingest.status-ttl:1h}") Duration statusTtl,
+                         @Value("${library.ingest.status-capacity:100000}") long statusCapacity,
+                         @Value("${library.ingest.durable:false}") boolean durable,
+                         @Value("${library.ingest.directory:${java.io.tmpdir}/library-ingest}") Path directory,
+                         @Value("${library.ingest.segment-size:64MB}") DataSize segmentSize) {
+        this.bookBatchService = bookBatchService;
+        this.isbnIndex = isbnIndex;
+        this.bookIndexLoader = bookIndexLoader;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxDelay = maxDelay;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.statuses = Caffeine.newBuilder()
+                .expireAfterWrite(statusTtl)
+                .maximumSize(statusCapacity)
+                .build();
+        this.journal = enabled && durable
+                ? new IngestJournal(directory, objectMapper, checkpointRepository, segmentSize.toBytes())
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a validated book for creation. Its ISBN is checked against the books
+     * already stored; clashes with other queued books are reported by the writer.
+     */
+    public IngestStatus accept(Book book) {
+        if (isbnIndex.isTakenByOther(book.getIsbn(), null)) {
+            throw new DuplicateResourceException("ISBN already exists: " + book.getIsbn());
+        }
+        book.setId(null);
+        IngestStatus status = IngestStatus.queued(UUID.randomUUID().toString(), Instant.now());
+        long position = 0;
+        synchronized (appendLock) {
+            if (!accepting) {
+                rejected.incrementAndGet();
+                throw new QueueFullException("Ingestion is not accepting books, retry shortly");
+            }
+            if (queue.remainingCapacity() == 0) {
+                rejected.incrementAndGet();
+                throw new QueueFullException("The ingest queue is full, retry shortly");
+            }
+            QueuedBook queued;
+            try {
+                queued = journal == null
+                        ? new QueuedBook(status.id(), book, status.acceptedAt(), 0, 0)
+                        : journal.append(status.id(), book, status.acceptedAt());
+                position = journal == null ? 0 : journal.position();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            statuses.put(status.id(), status);
+            queue.add(queued);
+        }
+        if (journal != null) {
+            try {
+                journal.sync(position);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return status;
+    }
+
+    public IngestStatus getStatus(String id) {
+        IngestStatus status = statuses.getIfPresent(id);
+        if (status == null) {
+            throw new ResourceNotFoundException("Ingest request not found with id: " + id);
+        }
+        return status;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<QueuedBook> recovered = journal == null ? List.of() : journal.recover();
+        recovered.forEach(queued -> statuses.put(queued.ticket(), IngestStatus.queued(queued.ticket(), queued.acceptedAt())));
+        accepting = true;
+        writer = Thread.ofPlatform().name("ingest-writer").start(() -> run(recovered));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        synchronized (appendLock) {
+            accepting = false;
+        }
+        if (writer != null && !writer.join(Duration.ofSeconds(30))) {
+            // Still retrying a group the database will not take; its books stay in the journal.
+            writer.interrupt();
+            writer.join(Duration.ofSeconds(5));
+        }
+        if (journal != null && writer != null) {
+            journal.close();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("library.ingest.queue.size", queue, BlockingQueue::size)
+                .description("Books accepted and waiting to be committed")
+                .register(registry);
+        FunctionCounter.builder("library.ingest.rejected", rejected, AtomicLong::get)
+                .description("Books turned away because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("library.ingest.books", committedBooks, AtomicLong::get)
+                .description("Queued books processed by the writer")
+                .register(registry);
+        FunctionCounter.builder("library.ingest.groups", committedGroups, AtomicLong::get)
+                .description("Group commits by the writer")
+                .register(registry);
+        FunctionCounter.builder("library.ingest.retries", retries, AtomicLong::get)
+                .description("Group commits retried after the database could not take them")
+                .register(registry);
+    }
+
+    private void run(List<QueuedBook> recovered) {
+        List<QueuedBook> group = new ArrayList<>(batchSize);
+        try {
+            // Until the indexes are loaded, the ISBN index cannot tell duplicates apart.
+            while (!bookIndexLoader.awaitLoaded(Duration.ofMillis(100))) {
+                if (!accepting) {
+                    return;
+                }
+            }
+            for (int from = 0; from < recovered.size(); from += batchSize) {
+                commitWithRetry(recovered.subList(from, Math.min(from + batchSize, recovered.size())));
+            }
+            while (accepting || !queue.isEmpty()) {
+                fill(group);
+                if (!group.isEmpty()) {
+                    commitWithRetry(group);
+                    group.clear();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Waits briefly for a first book, then gathers more until the group is full or its time is up. */
+    private void fill(List<QueuedBook> group) throws InterruptedException {
+        QueuedBook first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        group.add(first);
+        long deadline = System.nanoTime() + maxDelay.toNanos();
+        while (group.size() < batchSize) {
+            queue.drainTo(group, batchSize - group.size());
+            long remaining = deadline - System.nanoTime();
+            if (group.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            QueuedBook next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            group.add(next);
+        }
+    }
+
+    /**
+     * Commits the group, waiting out failures that leave the database unavailable
+     * for now with an exponential backoff. Each retry resumes after the rows whose
+     * transaction committed, so no book is written twice and the journal checkpoint
+     * only ever covers books that are stored. Any other failure would only repeat,
+     * so the books not yet stored are marked failed instead.
+     */
+    private void commitWithRetry(List<QueuedBook> group) throws InterruptedException {
+        List<ItemResult> results = new ArrayList<>(group.size());
+        long backoff = INITIAL_BACKOFF_MILLIS;
+        while (true) {
+            try {
+                write(group.subList(results.size(), group.size()), results);
+                break;
+            } catch (RuntimeException e) {
+                if (!isTransient(e)) {
+                    fail(group, results, e);
+                    break;
+                }
+                retries.incrementAndGet();
+                log.warn("Group commit of {} queued books failed, retrying in {} ms",
+                        group.size() - results.size(), backoff, e);
+                Thread.sleep(backoff);
+                backoff = Math.min(backoff * 2, MAX_BACKOFF_MILLIS);
+            }
+        }
+        if (journal != null) {
+            try {
+                journal.committed(group.getLast());
+            } catch (IOException e) {
+                log.warn("Could not release committed ingest journal segments", e);
+            }
+        }
+        for (int i = 0; i < group.size(); i++) {
+            QueuedBook queued = group.get(i);
+            ItemResult result = results.get(i);
+            statuses.put(queued.ticket(), result.isCreated()
+                    ? IngestStatus.created(queued.ticket(), result.id(), queued.acceptedAt())
+                    : IngestStatus.failed(queued.ticket(), result.errors(), queued.acceptedAt()));
+        }
+        committedBooks.addAndGet(group.size());
+        committedGroups.incrementAndGet();
+    }
+
+    /**
+     * Settles the books not yet stored as failed, and moves the journal past them
+     * so that a restart does not replay books already reported failed.
+     */
+    private void fail(List<QueuedBook> group, List<ItemResult> results, RuntimeException e) {
+        log.error("Group commit of {} queued books failed, marking them failed", group.size() - results.size(), e);
+        List<String> errors = List.of("The book could not be stored: "
+                + (e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage()));
+        while (results.size() < group.size()) {
+            results.add(ItemResult.failed(results.size(), errors));
+        }
+        if (journal != null) {
+            try {
+                journal.checkpoint(group.getLast());
+            } catch (RuntimeException checkpointFailure) {
+                log.warn("Could not move the ingest journal checkpoint past failed books", checkpointFailure);
+            }
+        }
+    }
+
+    /** Whether {@code e} is down to the database being unreachable or busy for now rather than to the books. */
+    private static boolean isTransient(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException
+                    || cause instanceof SQLNonTransientConnectionException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Writes the books, appending to {@code settled} the outcome of each leading run
+     * of them once the transaction that checkpoints it has committed.
+     */
+    private void write(List<QueuedBook> books, List<ItemResult> settled) {
+        int from = settled.size();
+        List<ParsedRow> rows = books.stream().map(queued -> ParsedRow.of(queued.book())).toList();
+        List<ItemResult> results = bookBatchService.writeChunk(rows, done -> {
+            if (journal != null) {
+                journal.checkpoint(books.get(done.size() - 1));
+            }
+            List<ItemResult> outcome = new ArrayList<>(done);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    settled.subList(from, settled.size()).clear();
+                    settled.addAll(outcome);
+                }
+            });
+        });
+        settled.subList(from, settled.size()).clear();
+        settled.addAll(results);
+    }
+}
@@ -0,0 +1,135 @@
+package com.rohianon.library.service;
+
+import com.rohianon.library.DTOs.PerfSummary;
+import com.rohianon.library.DTOs.PerfSummary.ConnectionPoolStatistics;
+import com.rohianon.library.DTOs.PerfSummary.HibernateStatistics;
+import com.rohianon.library.DTOs.PerfSummary.JvmStatistics;
+import com.rohianon.library.DTOs.PerfSummary.RouteLatency;
+import com.rohianon.library.cache.BookCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the registered meters and Hibernate's statistics into one summary. The
+ * same meters are scraped in full at {@code /actuator/prometheus}.
+ */
+@Service
+@RequiredArgsConstructor
+public class PerfSummaryService {
+
+    private static final String ROUTE_PREFIX = "/api/books";
+
+    private final MeterRegistry meterRegistry;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BookCache bookCache;
+
+    public PerfSummary summarize() {
+        double uptimeSeconds = ManagementFactory.getRuntimeMXBean().getUptime() / 1000.0;
+        return new PerfSummary(
+                uptimeSeconds,
+                routes(),
+                hibernate(),
+                connectionPool(),
+                jvm(uptimeSeconds),
+                bookCache.statistics());
+    }
+
+    private List<RouteLatency> routes() {
+        return meterRegistry.find("http.server.requests").timers().stream()
+                .filter(timer -> {
+                    String uri = timer.getId().getTag("uri");
+                    return uri != null && uri.startsWith(ROUTE_PREFIX);
+                })
+                .map(timer -> {
+                    HistogramSnapshot snapshot = timer.takeSnapshot();
+                    return new RouteLatency(
+                            timer.getId().getTag("method"),
+                            timer.getId().getTag("uri"),
+                            timer.getId().getTag("status"),
+                            snapshot.count(),
+                            snapshot.mean(TimeUnit.MILLISECONDS),
+                            percentile(snapshot, 0.5),
+                            percentile(snapshot, 0.99),
+                            percentile(snapshot, 0.999),
+                            snapshot.max(TimeUnit.MILLISECONDS));
+                })
+                .sorted(Comparator.comparing(RouteLatency::uri)
+                        .thenComparing(RouteLatency::method)
+                        .thenComparing(RouteLatency::status))
+                .toList();
+    }
+
+    private HibernateStatistics hibernate() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return new HibernateStatistics(
+                statistics.getQueryExecutionCount(),
+                statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getEntityFetchCount(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getQueryExecutionMaxTime(),
+                statistics.getQueryExecutionMaxTimeQueryString());
+    }
+
+    private ConnectionPoolStatistics connectionPool() {
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").timer();
+        HistogramSnapshot snapshot = acquire == null ? HistogramSnapshot.empty(0, 0, 0) : acquire.takeSnapshot();
+        Counter timeouts = meterRegistry.find("hikaricp.connections.timeout").counter();
+        return new ConnectionPoolStatistics(
+                (int) gauge("hikaricp.connections.active"),
+                (int) gauge("hikaricp.connections.idle"),
+                (int) gauge("hikaricp.connections.pending"),
+                (int) gauge("hikaricp.connections.max"),
+                snapshot.count(),
+                snapshot.mean(TimeUnit.MILLISECONDS),
+                percentile(snapshot, 0.99),
+                snapshot.max(TimeUnit.MILLISECONDS),
+                timeouts == null ? 0 : (long) timeouts.count());
+    }
+
+    private JvmStatistics jvm(double uptimeSeconds) {
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        Collection<Timer> pauses = meterRegistry.find("jvm.gc.pause").timers();
+        Counter allocatedCounter = meterRegistry.find("jvm.gc.memory.allocated").counter();
+        long allocated = allocatedCounter == null ? 0 : (long) allocatedCounter.count();
+        return new JvmStatistics(
+                heap.getUsed(),
+                heap.getMax(),
+                pauses.stream().mapToLong(Timer::count).sum(),
+                pauses.stream().mapToDouble(timer -> timer.totalTime(TimeUnit.MILLISECONDS)).sum(),
+                pauses.stream().mapToDouble(timer -> timer.max(TimeUnit.MILLISECONDS)).max().orElse(0),
+                allocated,
+                uptimeSeconds > 0 ? allocated / uptimeSeconds : 0);
+    }
+
+    private double gauge(String name) {
+        Gauge gauge = meterRegistry.find(name).gauge();
+        return gauge == null ? 0 : gauge.value();
+    }
+
+    private static double percentile(HistogramSnapshot snapshot, double percentile) {
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,16 @@
+create sequence books_seq start with 1 increment by 50;
+
+create table books (
+    id bigint not null,
+    title varchar(255) not null,
+    author varchar(255) not null,
+    isbn varchar(20) not null,
+    published_date date not null,
+    version bigint not null,
+    primary key (id),
+    constraint uk_books_isbn unique (isbn)
+);
+
+create index idx_books_title_id on books (title, id);
+
+create index idx_books_published_date_id on books (published_date, id);
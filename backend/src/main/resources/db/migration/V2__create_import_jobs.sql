@@ -0,0 +1,24 @@
+create table import_jobs (
+    id varchar(36) not null,
+    file_name varchar(255),
+    stored_path varchar(1024) not null,
+    format enum ('CSV', 'NDJSON') not null,
+    status enum ('COMPLETED', 'FAILED', 'QUEUED', 'RUNNING') not null,
+    rows_processed bigint not null,
+    rows_imported bigint not null,
+    rows_failed bigint not null,
+    run_start_row bigint not null,
+    created_at timestamp(6) with time zone not null,
+    run_started_at timestamp(6) with time zone,
+    finished_at timestamp(6) with time zone,
+    last_error varchar(1024),
+    primary key (id)
+);
+
+create table import_job_errors (
+    job_id varchar(36) not null,
+    position integer not null,
+    message varchar(1024),
+    primary key (job_id, position),
+    constraint fk_import_job_errors_job foreign key (job_id) references import_jobs
+);
@@ -0,0 +1,6 @@
+create table ingest_checkpoints (
+    id varchar(32) not null,
+    journal_segment bigint not null,
+    entries_committed bigint not null,
+    primary key (id)
+);
@@ -0,0 +1,3 @@
+create index idx_books_author_id on books (author, id);
+
+create index idx_books_author_published_date_id on books (author, published_date, id);
@@ -0,0 +1,3 @@
+alter table books drop constraint uk_books_isbn;
+
+create unique index idx_books_isbn on books (isbn);
@@ -0,0 +1,127 @@
+package com.rohianon.library;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * {@code POST /api/books/batch} in chunks of three, so a batch spans several
+ * transactions. Items refused up front, by validation or by the ISBN index, fail
+ * alone; an item only the database refuses fails its chunk, which is then
+ * retried item by item so that every other item in it is still created.
+ */
+@SpringBootTest(properties = "library.batch.chunk-size=3")
+@AutoConfigureMockMvc
+class BookBatchTests {
+
+    private static final AtomicLong ISBNS = new AtomicLong(666_000_000);
+    /** Clear of the ids the sequence hands out. */
+    private static final long UNINDEXED_ID = 2_000_000;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void removeUnindexedBook() {
+        jdbcTemplate.update("delete from books where id = ?", UNINDEXED_ID);
+    }
+
+    @Test
+    void failsOnlyTheItemsThatAreRefused() throws Exception {
+        String stored = isbn(ISBNS.incrementAndGet());
+        mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson("Stored", stored)))
+                .andExpect(status().isCreated());
+        // Written behind the ISBN index's back, so only the database's unique index catches it.
+        String unindexed = isbn(ISBNS.incrementAndGet());
+        jdbcTemplate.update("""
+                insert into books (id, title, author, isbn, published_date, version)
+                values (?, 'Unindexed', 'Batch Tester', ?, date '2001-02-03', 0)
+                """, UNINDEXED_ID, unindexed);
+
+        String first = isbn(ISBNS.incrementAndGet());
+        List<String> items = List.of(
+                bookJson("Zero", first),
+                bookJson(" ", isbn(ISBNS.incrementAndGet())),
+                bookJson("Two", isbn(ISBNS.incrementAndGet())),
+                bookJson("Three", first),
+                bookJson("Four", isbn(ISBNS.incrementAndGet())),
+                bookJson("Five", stored),
+                bookJson("Six", unindexed),
+                bookJson("Seven", isbn(ISBNS.incrementAndGet())));
+
+        String body = mockMvc.perform(post("/api/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + String.join(",", items) + "]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(8))
+                .andExpect(jsonPath("$.created").value(4))
+                .andExpect(jsonPath("$.failed").value(4))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(errors(body, 1)).containsExactly("title: Title is required");
+        assertThat(errors(body, 3)).containsExactly("isbn: ISBN appears more than once in the batch");
+        assertThat(errors(body, 5)).containsExactly("isbn: ISBN already exists");
+        assertThat(errors(body, 6)).containsExactly("isbn: ISBN already exists");
+        List<Long> created = new ArrayList<>();
+        for (int index : new int[]{0, 2, 4, 7}) {
+            assertThat(errors(body, index)).as("item %d", index).isEmpty();
+            Number id = JsonPath.read(body, "$.items[" + index + "].id");
+            created.add(id.longValue());
+        }
+        assertThat(created).doesNotHaveDuplicates();
+        for (long id : created) {
+            mockMvc.perform(get("/api/books/{id}", id)).andExpect(status().isOk());
+        }
+        assertThat(jdbcTemplate.queryForObject("select count(*) from books where isbn = ?", Long.class, unindexed))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void refusesEmptyBatches() throws Exception {
+        mockMvc.perform(post("/api/books/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static List<String> errors(String body, int index) {
+        return JsonPath.read(body, "$.items[" + index + "].errors");
+    }
+
+    private static String bookJson(String title, String isbn) {
+        return """
+                {"title": "%s", "author": "Batch Tester", "isbn": "%s", "publishedDate": "2001-02-03"}
+                """.formatted(title, isbn);
+    }
+
+    /** A valid ISBN-13 built from nine digits. */
+    private static String isbn(long digits) {
+        String body = "978" + "%09d".formatted(digits);
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,155 @@
+package com.rohianon.library;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Keyset pagination through {@code GET /api/books?limit=} and
+ * {@code GET /api/books/query}: cursors that cannot be decoded or were issued for
+ * another sort are refused, cursors past the end give an empty last page, and
+ * walking the pages visits every book once in the sort order, ties broken by id.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class CursorPaginationTests {
+
+    private static final AtomicLong ISBNS = new AtomicLong(555_000_000);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void refusesMalformedCursors() throws Exception {
+        String titleCursor = token("title\n1\nDune");
+        List<String> requests = List.of(
+                "/api/books?limit=2&after=not base64!",
+                "/api/books?limit=2&after=" + token("id"),
+                "/api/books?limit=2&after=" + token("id\nseven"),
+                "/api/books?limit=2&after=99999999999999999999",
+                "/api/books?limit=2&after=" + titleCursor,
+                "/api/books/query?sort=publishedDate&after=" + token("publishedDate\n1\nnot-a-date"),
+                "/api/books/query?sort=id&after=" + titleCursor);
+        for (String request : requests) {
+            mockMvc.perform(get(request))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.status").value(400));
+        }
+    }
+
+    @Test
+    void refusesLimitsOutOfRange() throws Exception {
+        for (String request : List.of("/api/books?limit=0", "/api/books?limit=1001",
+                "/api/books/query?limit=0", "/api/books/query?limit=1001")) {
+            mockMvc.perform(get(request)).andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void endsWithAnEmptyPageAfterTheLastBook() throws Exception {
+        mockMvc.perform(get("/api/books?limit=5&after=" + Long.MAX_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty())
+                .andExpect(jsonPath("$.hasNext").value(false));
+        mockMvc.perform(get("/api/books/query?sort=title&after=" + token("title\n" + Long.MAX_VALUE + "\n\uffff")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isEmpty());
+    }
+
+    /**
+     * Titles and dates repeat, so most page boundaries fall inside a run of equal
+     * keys. A book added after the first page, ahead of the cursor for most sorts,
+     * must not make a later page repeat or skip any of the others.
+     */
+    @Test
+    void visitsEveryBookOnceInSortOrder() throws Exception {
+        String author = "Cursor " + UUID.randomUUID();
+        String[] titles = {"B", "A", "B", "C", "A", "B", "A"};
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < titles.length; i++) {
+            LocalDate published = LocalDate.of(1990 + i % 3, 1, 1);
+            rows.add(new Row(createBook(titles[i], author, published), titles[i], published));
+        }
+        for (String sort : List.of("id", "title", "author", "publishedDate")) {
+            Comparator<Row> order = switch (sort) {
+                case "title" -> Comparator.comparing(Row::title);
+                case "publishedDate" -> Comparator.comparing(Row::published);
+                default -> (left, right) -> 0;
+            };
+            List<Long> expected = rows.stream().sorted(order.thenComparingLong(Row::id)).map(Row::id).toList();
+
+            List<Long> visited = new ArrayList<>();
+            String after = "";
+            for (int page = 0; ; page++) {
+                MvcResult result = mockMvc.perform(get("/api/books/query")
+                                .param("author", author)
+                                .param("sort", sort)
+                                .param("limit", "2")
+                                .param("after", after))
+                        .andExpect(status().isOk())
+                        .andReturn();
+                String body = result.getResponse().getContentAsString();
+                List<Number> ids = JsonPath.read(body, "$.content[*].id");
+                ids.forEach(id -> visited.add(id.longValue()));
+                if (page == 0) {
+                    createBook("0 Early", author, LocalDate.of(1900, 1, 1));
+                }
+                if (!(Boolean) JsonPath.read(body, "$.hasNext")) {
+                    break;
+                }
+                after = JsonPath.read(body, "$.nextCursor");
+            }
+            assertThat(visited).as("sort %s", sort).doesNotHaveDuplicates();
+            assertThat(visited.stream().filter(expected::contains).toList()).as("sort %s", sort)
+                    .containsExactlyElementsOf(expected);
+        }
+    }
+
+    private long createBook(String title, String author, LocalDate published) throws Exception {
+        MvcResult created = mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title": "%s", "author": "%s", "isbn": "%s", "publishedDate": "%s"}
+                                """.formatted(title, author, isbn(ISBNS.incrementAndGet()), published)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        return ((Number) JsonPath.read(created.getResponse().getContentAsString(), "$.id")).longValue();
+    }
+
+    /** A valid ISBN-13 built from nine digits. */
+    private static String isbn(long digits) {
+        String body = "978" + "%09d".formatted(digits);
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record Row(long id, String title, LocalDate published) {
+    }
+}
@@ -0,0 +1,103 @@
+package com.rohianon.library;
+
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.entity.IngestCheckpoint;
+import com.rohianon.library.ingest.IngestJournal;
+import com.rohianon.library.ingest.QueuedBook;
+import com.rohianon.library.repository.IngestCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Replay of the durable ingest journal after a restart: only the books accepted
+ * after the committed checkpoint come back, oldest first, and a last entry cut
+ * short by a crash is dropped.
+ */
+@SpringBootTest
+class IngestJournalTests {
+
+    private static final long SEGMENT_SIZE = 1 << 20;
+
+    @TempDir
+    private Path directory;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private IngestCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void removeCheckpoint() {
+        checkpointRepository.deleteById(IngestCheckpoint.JOURNAL);
+    }
+
+    @Test
+    void replaysTheBooksAfterTheCommittedCheckpoint() throws IOException {
+        IngestJournal journal = open();
+        assertThat(journal.recover()).isEmpty();
+        journal.append("one", book("One"), Instant.now());
+        QueuedBook two = journal.append("two", book("Two"), Instant.now());
+        journal.append("three", book("Three"), Instant.now());
+        journal.append("four", book("Four"), Instant.now());
+        journal.sync(journal.position());
+        transactionTemplate.executeWithoutResult(status -> journal.checkpoint(two));
+        journal.committed(two);
+        journal.close();
+
+        IngestJournal restarted = open();
+        List<QueuedBook> replayed = restarted.recover();
+        assertThat(replayed).extracting(QueuedBook::ticket).containsExactly("three", "four");
+        assertThat(replayed).extracting(queued -> queued.book().getTitle()).containsExactly("Three", "Four");
+
+        // Once the replayed books are committed, the next start has nothing left to replay.
+        transactionTemplate.executeWithoutResult(status -> restarted.checkpoint(replayed.getLast()));
+        restarted.committed(replayed.getLast());
+        restarted.close();
+        IngestJournal again = open();
+        assertThat(again.recover()).isEmpty();
+        again.close();
+    }
+
+    @Test
+    void dropsAnEntryCutShortByACrash() throws IOException {
+        IngestJournal journal = open();
+        journal.recover();
+        QueuedBook one = journal.append("one", book("One"), Instant.now());
+        journal.sync(journal.position());
+        journal.close();
+        Files.writeString(directory.resolve("ingest-%09d.ndjson".formatted(one.segment())),
+                "{\"ticket\":\"two\",\"bo", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        IngestJournal restarted = open();
+        assertThat(restarted.recover()).extracting(QueuedBook::ticket).containsExactly("one");
+        restarted.close();
+    }
+
+    private IngestJournal open() {
+        return new IngestJournal(directory, objectMapper, checkpointRepository, SEGMENT_SIZE);
+    }
+
+    private static Book book(String title) {
+        return new Book(null, title, "Journal Tester", "978-0-306-40615-7", LocalDate.of(2001, 2, 3), null);
+    }
+}
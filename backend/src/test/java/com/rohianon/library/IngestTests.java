@@ -0,0 +1,152 @@
+package com.rohianon.library;
+
+import com.jayway.jsonpath.JsonPath;
+import com.rohianon.library.service.BookBatchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Write-behind creates: {@code Prefer: respond-async} answers 202 with a status
+ * URL that turns {@code CREATED} once the writer commits the book. A group the
+ * database cannot take for now is retried until it commits; any other failure
+ * fails its books at once and leaves the writer free for the next group.
+ */
+@SpringBootTest(properties = {"library.ingest.enabled=true", "library.ingest.max-delay=5ms"})
+@AutoConfigureMockMvc
+class IngestTests {
+
+    private static final AtomicLong ISBNS = new AtomicLong(777_000_000);
+    private static final Duration SETTLE_TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    private BookBatchService bookBatchService;
+
+    @Test
+    void acceptsThenCreatesTheBook() throws Exception {
+        String location = ingest("Queued");
+
+        String settled = awaitSettled(location);
+        assertThat((String) JsonPath.read(settled, "$.state")).isEqualTo("CREATED");
+        Number bookId = JsonPath.read(settled, "$.bookId");
+        mockMvc.perform(get("/api/books/{id}", bookId.longValue()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Queued"));
+    }
+
+    @Test
+    void answersNotFoundForAnUnknownTicket() throws Exception {
+        mockMvc.perform(get("/api/books/ingest/{id}", "no-such-ticket"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void retriesWhileTheDatabaseIsUnavailable() throws Exception {
+        double retriesBefore = retries();
+        doThrow(new CannotCreateTransactionException("database unavailable"))
+                .doThrow(new CannotCreateTransactionException("database unavailable"))
+                .doCallRealMethod()
+                .when(bookBatchService).writeChunk(anyList(), any());
+
+        String location = ingest("Retried");
+
+        assertThat((String) JsonPath.read(awaitSettled(location), "$.state")).isEqualTo("CREATED");
+        assertThat(retries() - retriesBefore).isEqualTo(2);
+    }
+
+    @Test
+    void failsTheGroupOnAnyOtherFailure() throws Exception {
+        double retriesBefore = retries();
+        doThrow(new IllegalStateException("not a database outage"))
+                .doCallRealMethod()
+                .when(bookBatchService).writeChunk(anyList(), any());
+
+        String failed = awaitSettled(ingest("Refused"));
+        assertThat((String) JsonPath.read(failed, "$.state")).isEqualTo("FAILED");
+        List<String> errors = JsonPath.read(failed, "$.errors");
+        assertThat(errors).singleElement().asString().contains("not a database outage");
+        assertThat(retries()).isEqualTo(retriesBefore);
+
+        assertThat((String) JsonPath.read(awaitSettled(ingest("Next")), "$.state")).isEqualTo("CREATED");
+    }
+
+    /** Queues a book and returns its status URL. */
+    private String ingest(String title) throws Exception {
+        MvcResult accepted = mockMvc.perform(post("/api/books")
+                        .header("Prefer", "respond-async")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {"title": "%s", "author": "Ingest Tester", "isbn": "%s", "publishedDate": "2001-02-03"}
+                                """.formatted(title, isbn(ISBNS.incrementAndGet()))))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Preference-Applied", "respond-async"))
+                .andExpect(jsonPath("$.state").value("QUEUED"))
+                .andReturn();
+        String ticket = JsonPath.read(accepted.getResponse().getContentAsString(), "$.id");
+        String location = accepted.getResponse().getHeader(HttpHeaders.LOCATION);
+        assertThat(location).endsWith("/api/books/ingest/" + ticket);
+        return location;
+    }
+
+    /** Polls the status URL until the book is no longer queued and returns its status. */
+    private String awaitSettled(String location) throws Exception {
+        long deadline = System.nanoTime() + SETTLE_TIMEOUT.toNanos();
+        while (true) {
+            String status = mockMvc.perform(get(URI.create(location)))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            if (!"QUEUED".equals(JsonPath.read(status, "$.state"))) {
+                return status;
+            }
+            if (System.nanoTime() > deadline) {
+                fail("Still queued after %s: %s", SETTLE_TIMEOUT, status);
+            }
+            Thread.sleep(20);
+        }
+    }
+
+    private double retries() {
+        return meterRegistry.get("library.ingest.retries").functionCounter().count();
+    }
+
+    /** A valid ISBN-13 built from nine digits. */
+    private static String isbn(long digits) {
+        String body = "978" + "%09d".formatted(digits);
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,105 @@
+package com.rohianon.library;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+/**
+ * Starts the application in a fresh JVM and fails if the first {@code GET /api/books}
+ * is not answered within {@code -Dlibrary.startup.budget} (default 45s). Extra JVM
+ * options, such as {@code -XX:SharedArchiveFile=...}, can be passed through
+ * {@code -Dlibrary.startup.jvm-args}. Tagged {@code startup}, which a plain
+ * {@code mvn test} skips; run it with {@code mvn test -Pstartup}.
+ */
+@Slf4j
+@Tag("startup")
+class StartupBudgetTests {
+
+    private static final Duration DEFAULT_BUDGET = Duration.ofSeconds(45);
+
+    @Test
+    void firstRequestIsServedWithinBudget() throws Exception {
+        Duration budget = Duration.parse("PT" + System.getProperty("library.startup.budget", DEFAULT_BUDGET.toSeconds() + "s"));
+        int port = freePort();
+        Path log = Files.createTempFile("startup-budget", ".log");
+
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        String jvmArgs = System.getProperty("library.startup.jvm-args", "");
+        if (!jvmArgs.isBlank()) {
+            command.addAll(Arrays.asList(jvmArgs.trim().split("\\s+")));
+        }
+        command.addAll(List.of(
+                "-cp", System.getProperty("java.class.path"),
+                LibraryApplication.class.getName(),
+                "--server.port=" + port,
+                "--spring.profiles.active=prod",
+                "--spring.datasource.url=jdbc:h2:mem:startup-budget",
+                "--spring.devtools.restart.enabled=false"
+        ));
+
+        HttpClient client = HttpClient.newHttpClient();
+        URI uri = URI.create("http://localhost:" + port + "/api/books");
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        try {
+            Duration elapsed;
+            while (true) {
+                elapsed = Duration.ofNanos(System.nanoTime() - start);
+                if (!process.isAlive()) {
+                    fail("Application exited with " + process.exitValue() + " before serving a request, see " + log);
+                }
+                if (elapsed.compareTo(budget) > 0) {
+                    fail("No response to GET /api/books within the " + budget.toSeconds() + "s budget, see " + log);
+                }
+                HttpRequest request = HttpRequest.newBuilder(uri).timeout(budget.minus(elapsed)).build();
+                if (isOk(client, request)) {
+                    break;
+                }
+                Thread.sleep(50);
+            }
+            log.info("First GET /api/books answered {} ms after launch", elapsed.toMillis());
+            assertThat(elapsed)
+                    .as("First GET /api/books answered %d ms after launch", elapsed.toMillis())
+                    .isLessThanOrEqualTo(budget);
+            Files.delete(log);
+        } finally {
+            process.destroyForcibly();
+            process.waitFor();
+        }
+    }
+
+    private static boolean isOk(HttpClient client, HttpRequest request) throws InterruptedException {
+        try {
+            return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.rohianon.library.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Entity tags on single books and on pages: revalidation with If-None-Match,
+ * optimistic writes with If-Match, the version bump behind both, and the
+ * separate tags of the JSON and CBOR representations.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class BookControllerTests {
+
+    private static final AtomicLong ISBNS = new AtomicLong(444_000_000);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void answersNotModifiedWhileTheBookIsUnchanged() throws Exception {
+        Created book = createBook();
+
+        mockMvc.perform(get("/api/books/{id}", book.id()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, book.tag()))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT)));
+        mockMvc.perform(get("/api/books/{id}", book.id()).header(HttpHeaders.IF_NONE_MATCH, book.tag()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, book.tag()))
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/api/books/{id}", book.id()).header(HttpHeaders.IF_NONE_MATCH, "W/" + book.tag()))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books/{id}", book.id()).header(HttpHeaders.IF_NONE_MATCH, "\"0.0\", *"))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books/{id}", book.id())
+                        .header(HttpHeaders.IF_NONE_MATCH, tag(book.id(), book.version() + 1)))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void patchBumpsTheVersionAndRetiresTheOldTag() throws Exception {
+        Created book = createBook();
+
+        MvcResult patched = mockMvc.perform(patch("/api/books/{id}", book.id())
+                        .header(HttpHeaders.IF_MATCH, book.tag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Patched\"}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tag(book.id(), book.version() + 1)))
+                .andReturn();
+        assertThat(number(patched, "$.version")).isEqualTo(book.version() + 1);
+        assertThat((String) JsonPath.read(patched.getResponse().getContentAsString(), "$.title")).isEqualTo("Patched");
+
+        mockMvc.perform(get("/api/books/{id}", book.id()).header(HttpHeaders.IF_NONE_MATCH, book.tag()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, tag(book.id(), book.version() + 1)));
+    }
+
+    @Test
+    void rejectsWritesUnderAStaleTag() throws Exception {
+        Created book = createBook();
+        mockMvc.perform(patch("/api/books/{id}", book.id())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"author\": \"Someone Else\"}"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(patch("/api/books/{id}", book.id())
+                        .header(HttpHeaders.IF_MATCH, book.tag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Lost Update\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(patch("/api/books/{id}", book.id())
+                        .header(HttpHeaders.IF_MATCH, tag(book.id() + 1, book.version() + 1))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Wrong Book\"}"))
+                .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/api/books/{id}", book.id())
+                        .header(HttpHeaders.IF_MATCH, book.tag())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson("Lost Update", book.isbn())))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(get("/api/books/{id}", book.id()))
+                .andExpect(header().string(HttpHeaders.ETAG, tag(book.id(), book.version() + 1)));
+    }
+
+    @Test
+    void tagsEachRepresentationApart() throws Exception {
+        Created book = createBook();
+        String cborTag = tag(book.id(), book.version()).replaceFirst("\"$", "-cbor\"");
+
+        mockMvc.perform(get("/api/books/{id}", book.id()).accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, containsString(MediaType.APPLICATION_CBOR_VALUE)))
+                .andExpect(header().string(HttpHeaders.ETAG, cborTag));
+        mockMvc.perform(get("/api/books/{id}", book.id())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, book.tag()))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/books/{id}", book.id())
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/books/{id}", book.id()).header(HttpHeaders.IF_NONE_MATCH, cborTag))
+                .andExpect(status().isOk());
+
+        // A version is the same whichever representation it was read in.
+        mockMvc.perform(patch("/api/books/{id}", book.id())
+                        .header(HttpHeaders.IF_MATCH, cborTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"Read As CBOR\"}"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void pageTagsFollowTheirRows() throws Exception {
+        createBook();
+        for (String page : new String[]{"/api/books?page=0&size=1", "/api/books?limit=1"}) {
+            MvcResult first = mockMvc.perform(get(page))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            String pageTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(pageTag).as(page).isNotNull();
+            long id = number(first, "$.content[0].id");
+            long version = number(first, "$.content[0].version");
+
+            mockMvc.perform(get(page).header(HttpHeaders.IF_NONE_MATCH, pageTag))
+                    .andExpect(status().isNotModified())
+                    .andExpect(header().string(HttpHeaders.ETAG, pageTag));
+            String cborTag = mockMvc.perform(get(page).accept(MediaType.APPLICATION_CBOR))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(cborTag).as(page).isEqualTo(pageTag.replaceFirst("\"$", "-cbor\""));
+
+            mockMvc.perform(patch("/api/books/{id}", id)
+                            .header(HttpHeaders.IF_MATCH, tag(id, version))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"title\": \"Changed On The Page\"}"))
+                    .andExpect(status().isOk());
+            String changedTag = mockMvc.perform(get(page).header(HttpHeaders.IF_NONE_MATCH, pageTag))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+            assertThat(changedTag).as(page).isNotEqualTo(pageTag);
+        }
+    }
+
+    private Created createBook() throws Exception {
+        String isbn = isbn(ISBNS.incrementAndGet());
+        MvcResult created = mockMvc.perform(post("/api/books")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(bookJson("Tagged", isbn)))
+                .andExpect(status().isCreated())
+                .andReturn();
+        long id = number(created, "$.id");
+        long version = number(created, "$.version");
+        assertThat(created.getResponse().getHeader(HttpHeaders.ETAG)).isEqualTo(tag(id, version));
+        return new Created(id, version, isbn);
+    }
+
+    private static String bookJson(String title, String isbn) {
+        return """
+                {"title": "%s", "author": "Tag Tester", "isbn": "%s", "publishedDate": "2001-02-03"}
+                """.formatted(title, isbn);
+    }
+
+    /** A valid ISBN-13 built from nine digits, so the ISBN index keeps it. */
+    private static String isbn(long digits) {
+        String body = "978" + "%09d".formatted(digits);
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+
+    private static long number(MvcResult result, String path) throws Exception {
+        return ((Number) JsonPath.read(result.getResponse().getContentAsString(), path)).longValue();
+    }
+
+    private static String tag(long id, long version) {
+        return "\"" + id + "." + version + "\"";
+    }
+
+    private record Created(long id, long version, String isbn) {
+
+        String tag() {
+            return BookControllerTests.tag(id, version);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.rohianon.library.index;
+
+import com.rohianon.library.DTOs.Facets;
+import com.rohianon.library.DTOs.Facets.FacetCount;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.event.BookChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BookFacetsTests {
+
+    @Test
+    void countsAuthorsAndDecades() {
+        BookFacets facets = new BookFacets();
+        facets.add(book(1, "Le Guin", 1969));
+        facets.add(book(2, "Le Guin", 1974));
+        facets.add(book(3, "Herbert", 1965));
+
+        Facets all = facets.facets(10);
+
+        assertThat(all.total()).isEqualTo(3);
+        assertThat(all.authors()).containsExactly(new FacetCount("Le Guin", 2), new FacetCount("Herbert", 1));
+        assertThat(all.decades()).containsExactly(new FacetCount("1960s", 2), new FacetCount("1970s", 1));
+    }
+
+    @Test
+    void forgetsAuthorsWhoseLastBookIsGone() {
+        BookFacets facets = new BookFacets();
+        facets.add(book(1, "Le Guin", 1969));
+        facets.add(book(2, "Herbert", 1965));
+
+        facets.onBookChanged(BookChangedEvent.deleted(2L));
+        facets.onBookChanged(BookChangedEvent.updated(book(1, "Ursula K. Le Guin", 1969)));
+
+        assertThat(facets.facets(10).authors()).containsExactly(new FacetCount("Ursula K. Le Guin", 1));
+
+        facets.add(book(3, "Asimov", 1951));
+        facets.add(book(4, "Herbert", 1965));
+
+        assertThat(facets.facets(10).authors()).containsExactly(new FacetCount("Asimov", 1),
+                new FacetCount("Herbert", 1), new FacetCount("Ursula K. Le Guin", 1));
+    }
+
+    @Test
+    void talliesOnlyTheBooksAdded() {
+        BookFacets facets = new BookFacets();
+        facets.add(book(1, "Le Guin", 1969));
+        facets.add(book(2, "Le Guin", 1974));
+        facets.add(book(3, "Herbert", 1965));
+
+        BookFacets.Tally tally = facets.tally();
+        tally.add(2);
+        tally.add(3);
+        tally.add(99);
+
+        Facets matches = tally.facets(1);
+        assertThat(matches.total()).isEqualTo(2);
+        assertThat(matches.authors()).containsExactly(new FacetCount("Herbert", 1));
+        assertThat(matches.decades()).containsExactly(new FacetCount("1960s", 1), new FacetCount("1970s", 1));
+    }
+
+    @Test
+    void talliesUnderTheAuthorABookHadWhenAdded() {
+        BookFacets facets = new BookFacets();
+        facets.add(book(1, "Le Guin", 1969));
+        facets.add(book(2, "Herbert", 1965));
+
+        BookFacets.Tally tally = facets.tally();
+        tally.add(1);
+        facets.onBookChanged(BookChangedEvent.deleted(1L));
+        facets.add(book(3, "Asimov", 1951));
+        tally.add(2);
+
+        assertThat(tally.facets(10).authors()).containsExactly(new FacetCount("Herbert", 1),
+                new FacetCount("Le Guin", 1));
+    }
+
+    private static Book book(long id, String author, int year) {
+        return new Book(id, "Title " + id, author, "isbn-" + id, LocalDate.of(year, 1, 1), 0L);
+    }
+}
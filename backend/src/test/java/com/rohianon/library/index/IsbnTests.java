@@ -0,0 +1,60 @@
+package com.rohianon.library.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IsbnTests {
+
+    @Test
+    void isbn10AndIsbn13SpellingsShareAKey() {
+        long key = Isbn.key("978-0-306-40615-7");
+
+        assertThat(key).isNotEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("9780306406157")).isEqualTo(key);
+        assertThat(Isbn.key("0-306-40615-2")).isEqualTo(key);
+        assertThat(Isbn.key("0 306 40615 2")).isEqualTo(key);
+    }
+
+    @Test
+    void acceptsXAsIsbn10CheckDigit() {
+        assertThat(Isbn.key("0-8044-2957-X")).isEqualTo(Isbn.key("978-0-8044-2957-3"));
+        assertThat(Isbn.key("080442957x")).isEqualTo(Isbn.key("9780804429573"));
+    }
+
+    @Test
+    void accepts979Prefix() {
+        assertThat(Isbn.key("979-10-90636-07-1")).isEqualTo(979_109_063_607L);
+    }
+
+    @Test
+    void rejectsWrongCheckDigits() {
+        assertThat(Isbn.key("978-0-306-40615-8")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("0-306-40615-3")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("0-8044-2957-0")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("0-306-40615-X")).isEqualTo(Isbn.NOT_AN_ISBN);
+    }
+
+    @Test
+    void valuesDifferingOnlyInCheckDigitNeverCollide() {
+        int valid = 0;
+        for (char check = '0'; check <= '9'; check++) {
+            if (Isbn.key("978030640615" + check) != Isbn.NOT_AN_ISBN) {
+                valid++;
+            }
+        }
+        assertThat(valid).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsValuesThatAreNotIsbnShaped() {
+        assertThat(Isbn.key(null)).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("978030640615")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("97803064061570")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("9771234567898")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("03064X6152")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("0-306-40615-2a")).isEqualTo(Isbn.NOT_AN_ISBN);
+        assertThat(Isbn.key("ISBN 0-306-40615-2")).isEqualTo(Isbn.NOT_AN_ISBN);
+    }
+}
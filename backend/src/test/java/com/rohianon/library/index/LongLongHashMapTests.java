@@ -0,0 +1,80 @@
+package com.rohianon.library.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class LongLongHashMapTests {
+
+    private static final long MISSING = -1;
+
+    @Test
+    void putGetAndRemove() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThat(map.put(7, 70, MISSING)).isEqualTo(MISSING);
+        assertThat(map.put(7, 71, MISSING)).isEqualTo(70);
+        assertThat(map.get(7, MISSING)).isEqualTo(71);
+        assertThat(map.get(8, MISSING)).isEqualTo(MISSING);
+        assertThat(map.size()).isEqualTo(1);
+
+        assertThat(map.remove(7, MISSING)).isEqualTo(71);
+        assertThat(map.remove(7, MISSING)).isEqualTo(MISSING);
+        assertThat(map.get(7, MISSING)).isEqualTo(MISSING);
+        assertThat(map.size()).isZero();
+    }
+
+    @Test
+    void rejectsZeroKey() {
+        LongLongHashMap map = new LongLongHashMap();
+
+        assertThatIllegalArgumentException().isThrownBy(() -> map.put(0, 1, MISSING));
+        assertThatIllegalArgumentException().isThrownBy(() -> map.remove(0, MISSING));
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        for (long key = 1; key <= 10_000; key++) {
+            map.put(key, key * 3, MISSING);
+        }
+
+        assertThat(map.size()).isEqualTo(10_000);
+        for (long key = 1; key <= 10_000; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(key * 3);
+        }
+        assertThat(map.memoryBytes()).isGreaterThanOrEqualTo(10_000L * Long.BYTES * 2);
+    }
+
+    /**
+     * Keys from a small range collide often, so removals keep shifting probe runs
+     * back; every key must stay reachable afterwards.
+     */
+    @Test
+    void matchesHashMapUnderRandomPutsAndRemoves() {
+        Random random = new Random(42);
+        LongLongHashMap map = new LongLongHashMap();
+        Map<Long, Long> expected = new HashMap<>();
+        for (int step = 0; step < 200_000; step++) {
+            long key = 1 + random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                Long removed = expected.remove(key);
+                assertThat(map.remove(key, MISSING)).isEqualTo(removed == null ? MISSING : removed);
+            } else {
+                long value = random.nextInt(1_000_000);
+                Long previous = expected.put(key, value);
+                assertThat(map.put(key, value, MISSING)).isEqualTo(previous == null ? MISSING : previous);
+            }
+        }
+
+        assertThat(map.size()).isEqualTo(expected.size());
+        for (long key = 1; key <= 2_000; key++) {
+            assertThat(map.get(key, MISSING)).isEqualTo(expected.getOrDefault(key, MISSING));
+        }
+    }
+}
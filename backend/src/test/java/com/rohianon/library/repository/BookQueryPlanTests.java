@@ -0,0 +1,193 @@
+package com.rohianon.library.repository;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookFilter;
+import com.rohianon.library.service.BookSort;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSourceUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs H2's {@code EXPLAIN} on the SQL of {@code GET /api/books/query} for every
+ * combination of filters, sort and cursor, and fails if any of them reads the
+ * table instead of an index, scans an index that none of the filters set bounds,
+ * or picks another index than the one expected for the combination.
+ *
+ * <p>The plans are taken over a catalog with many authors and decades of dates,
+ * analyzed first: on an empty table, or before {@code ANALYZE}, H2 takes every
+ * column to hold few distinct values and costs an author lookup like a range.
+ */
+@SpringBootTest
+class BookQueryPlanTests {
+
+    private static final int FILTERS = 4;
+    private static final int BOOKS = 2_000;
+    private static final int AUTHORS = 200;
+    /** Clear of the ids the sequence hands out while the other tests run. */
+    private static final long FIRST_ID = 1_000_000;
+
+    /** The comment in which H2 names the index it reads, followed by that index's conditions if it has any. */
+    private static final Pattern INDEX_COMMENT = Pattern.compile("/\\* ([^:*]+?)(?:: ([^*]*))? \\*/");
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    /**
+     * One book in ten per ISBN group digit, ten per author and dates spread over
+     * 1900 to 2019, so an author is far more selective than an ISBN prefix or a
+     * date range.
+     */
+    @BeforeEach
+    void seedCatalog() {
+        List<Map<String, Object>> books = new ArrayList<>(BOOKS);
+        for (int i = 0; i < BOOKS; i++) {
+            books.add(Map.of(
+                    "id", FIRST_ID + i,
+                    "title", "Title %04d".formatted(i),
+                    "author", author(i % AUTHORS),
+                    "isbn", "978-%d-%06d".formatted(i % 10, i),
+                    "publishedDate", LocalDate.of(1900, 1, 1).plusDays(i * 7_919L % (120 * 365))));
+        }
+        jdbcTemplate.batchUpdate("""
+                insert into books (id, title, author, isbn, published_date, version)
+                values (:id, :title, :author, :isbn, :publishedDate, 0)
+                """, SqlParameterSourceUtils.createBatch(books));
+        jdbcTemplate.getJdbcTemplate().execute("analyze");
+    }
+
+    @AfterEach
+    void removeCatalog() {
+        jdbcTemplate.update("delete from books where id >= :first", Map.of("first", FIRST_ID));
+        jdbcTemplate.getJdbcTemplate().execute("analyze");
+    }
+
+    @Test
+    void everyFilterAndSortCombinationUsesAnIndex() {
+        List<String> tableScans = new ArrayList<>();
+        List<String> unboundedScans = new ArrayList<>();
+        List<String> unexpectedIndexes = new ArrayList<>();
+        int plans = 0;
+        for (int mask = 0; mask < 1 << FILTERS; mask++) {
+            BookFilter filter = filter(mask);
+            for (BookSort sort : BookSort.values()) {
+                for (Map<String, ?> after : List.of(Map.of(), after(sort))) {
+                    Sort order = sort.toSort();
+                    BookQuerySql.Statement statement = BookQuerySql.build(BookField.ALL, filter, after, order, 21);
+                    String plan = jdbcTemplate.queryForObject("explain " + statement.sql(), statement.parameters(),
+                            String.class);
+                    String combination = filter + ", sort " + sort.property()
+                            + (after.isEmpty() ? "" : ", after cursor") + ":\n" + plan;
+                    if (plan.contains("tableScan")) {
+                        tableScans.add(combination);
+                    } else if (mask != 0 && !boundsFilteredColumn(plan, mask)) {
+                        unboundedScans.add(combination);
+                    }
+                    Set<String> expected = expectedIndexes(mask, sort);
+                    String chosen = index(plan);
+                    if (expected != null && (chosen == null || !expected.contains(chosen))) {
+                        unexpectedIndexes.add("expected one of " + expected + " for " + combination);
+                    }
+                    bookRepository.findResponsesMatching(BookField.ALL, filter, after, order, 21);
+                    plans++;
+                }
+            }
+        }
+        assertThat(plans).isEqualTo((1 << FILTERS) * BookSort.values().length * 2);
+        assertThat(tableScans).isEmpty();
+        assertThat(unboundedScans).isEmpty();
+        assertThat(unexpectedIndexes).isEmpty();
+    }
+
+    /**
+     * The indexes H2 should read for a combination. An author is the most
+     * selective filter once analyzed. Otherwise H2 costs a range bounded on both
+     * sides below one bounded on one side, so an ISBN prefix wins over a single
+     * date bound but ties with a date range. With no filter, the sort's own index
+     * serves the order, except by id, which the primary key serves however H2
+     * names it.
+     */
+    private static Set<String> expectedIndexes(int mask, BookSort sort) {
+        if ((mask & 1) != 0) {
+            return Set.of("IDX_BOOKS_AUTHOR_ID", "IDX_BOOKS_AUTHOR_PUBLISHED_DATE_ID");
+        }
+        if ((mask & 8) != 0) {
+            return (mask & 6) == 6 ? Set.of("IDX_BOOKS_ISBN", "IDX_BOOKS_PUBLISHED_DATE_ID") : Set.of("IDX_BOOKS_ISBN");
+        }
+        if ((mask & 6) != 0) {
+            return Set.of("IDX_BOOKS_PUBLISHED_DATE_ID");
+        }
+        return switch (sort) {
+            case ID -> null;
+            case TITLE -> Set.of("IDX_BOOKS_TITLE_ID");
+            case AUTHOR -> Set.of("IDX_BOOKS_AUTHOR_ID");
+            case PUBLISHED_DATE -> Set.of("IDX_BOOKS_PUBLISHED_DATE_ID");
+        };
+    }
+
+    /** The name of the index the plan reads, without its schema. */
+    private static String index(String plan) {
+        Matcher index = INDEX_COMMENT.matcher(plan);
+        if (!index.find()) {
+            return null;
+        }
+        String name = index.group(1).replace("\"", "").toUpperCase(Locale.ROOT);
+        return name.substring(name.lastIndexOf('.') + 1);
+    }
+
+    /** Whether the index the plan reads has a condition on a column the filters in {@code mask} constrain. */
+    private static boolean boundsFilteredColumn(String plan, int mask) {
+        Matcher index = INDEX_COMMENT.matcher(plan);
+        if (!index.find() || index.group(2) == null) {
+            return false;
+        }
+        String conditions = index.group(2).replace("\"", "").toUpperCase(Locale.ROOT);
+        return (mask & 1) != 0 && conditions.contains("AUTHOR")
+                || (mask & 6) != 0 && conditions.contains("PUBLISHED_DATE")
+                || (mask & 8) != 0 && conditions.contains("ISBN");
+    }
+
+    private static BookFilter filter(int mask) {
+        return new BookFilter(
+                (mask & 1) != 0 ? author(7) : null,
+                (mask & 2) != 0 ? LocalDate.of(1950, 1, 1) : null,
+                (mask & 4) != 0 ? LocalDate.of(1969, 12, 31) : null,
+                (mask & 8) != 0 ? "978-0" : null);
+    }
+
+    private static String author(int number) {
+        return "Author %03d".formatted(number);
+    }
+
+    private static Map<String, ?> after(BookSort sort) {
+        Map<String, Object> after = new LinkedHashMap<>();
+        switch (sort) {
+            case ID -> {
+            }
+            case TITLE -> after.put("title", "M");
+            case AUTHOR -> after.put("author", "M");
+            case PUBLISHED_DATE -> after.put("publishedDate", LocalDate.of(1960, 1, 1));
+        }
+        after.put("id", 100L);
+        return after;
+    }
+}
@@ -0,0 +1,147 @@
+package com.rohianon.library.search;
+
+import com.rohianon.library.DTOs.Suggestion;
+import com.rohianon.library.DTOs.Suggestion.Kind;
+import com.rohianon.library.entity.Book;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SuggestIndexTests {
+
+    @Test
+    void ranksByBooksThenNewestIgnoringCase() {
+        SuggestIndex index = new SuggestIndex();
+        index.add(book(1, "Dune", "Frank Herbert", 1965));
+        index.add(book(2, "Dune Messiah", "Frank Herbert", 1969));
+        index.add(book(3, "dune", "Someone Else", 2001));
+        index.add(book(4, "Dune", "Brian Herbert", 1999));
+
+        assertThat(index.suggest("DUNE", 10)).containsExactly(
+                new Suggestion("Dune", Kind.TITLE, 2),
+                new Suggestion("dune", Kind.TITLE, 1),
+                new Suggestion("Dune Messiah", Kind.TITLE, 1));
+        assertThat(index.suggest("f", 10)).containsExactly(new Suggestion("Frank Herbert", Kind.AUTHOR, 2));
+        assertThat(index.suggest(" ", 10)).isEmpty();
+        assertThat(index.suggest("x", 10)).isEmpty();
+    }
+
+    @Test
+    void forgetsTextsWhoseBooksAreGone() {
+        SuggestIndex index = new SuggestIndex();
+        index.add(book(1, "Dune", "Frank Herbert", 1965));
+
+        index.put(book(1, "Children of Dune", "Frank Herbert", 1976));
+        assertThat(index.suggest("d", 10)).isEmpty();
+
+        index.remove(1);
+        assertThat(index.suggest("c", 10)).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    /**
+     * Adds, retitles and removes books at random over enough distinct texts to
+     * split many blocks, and checks every suggestion against a sort of all the
+     * texts the remaining books carry.
+     */
+    @Test
+    void matchesBruteForceUnderRandomChanges() {
+        Random random = new Random(42);
+        SuggestIndex index = new SuggestIndex();
+        Map<Long, Book> stored = new HashMap<>();
+        Map<Text, int[]> texts = new HashMap<>();
+        for (int step = 0; step < 40_000; step++) {
+            long id = 1 + random.nextInt(6_000);
+            Book before = stored.remove(id);
+            if (before != null) {
+                release(texts, before);
+            }
+            if (random.nextInt(4) == 0) {
+                index.remove(id);
+            } else {
+                Book book = book(id, text(random), text(random), 1900 + random.nextInt(120));
+                index.put(book);
+                stored.put(id, book);
+                acquire(texts, book);
+            }
+            if (step % 1_000 == 0) {
+                assertMatchesBruteForce(index, texts, random);
+            }
+        }
+        assertThat(index.blockCount()).isGreaterThan(1);
+        assertThat(index.size()).isEqualTo(texts.size());
+        assertMatchesBruteForce(index, texts, random);
+    }
+
+    private static void assertMatchesBruteForce(SuggestIndex index, Map<Text, int[]> texts, Random random) {
+        for (int probe = 0; probe < 20; probe++) {
+            String text = text(random);
+            String prefix = text.substring(0, 1 + random.nextInt(Math.min(3, text.length())));
+            int limit = 1 + random.nextInt(SuggestIndex.MAX_SUGGESTIONS);
+            assertThat(index.suggest(prefix, limit))
+                    .as("suggest(%s, %d)", prefix, limit)
+                    .isEqualTo(bruteForce(texts, prefix, limit));
+        }
+    }
+
+    /** Every text starting with the prefix, sorted by the index's ranking. */
+    private static List<Suggestion> bruteForce(Map<Text, int[]> texts, String prefix, int limit) {
+        Comparator<Map.Entry<Text, int[]>> ranking = Comparator
+                .comparingInt((Map.Entry<Text, int[]> entry) -> entry.getValue()[0]).reversed()
+                .thenComparing(entry -> entry.getValue()[1], Comparator.reverseOrder())
+                .thenComparing(entry -> entry.getKey().text(), String.CASE_INSENSITIVE_ORDER)
+                .thenComparing(entry -> entry.getKey().kind())
+                .thenComparing(entry -> entry.getKey().text());
+        return texts.entrySet().stream()
+                .filter(entry -> entry.getKey().text().regionMatches(true, 0, prefix, 0, prefix.length()))
+                .sorted(ranking)
+                .limit(limit)
+                .map(entry -> new Suggestion(entry.getKey().text(), entry.getKey().kind(), entry.getValue()[0]))
+                .toList();
+    }
+
+    /**
+     * Counts the book against its title and author, remembering the newest date
+     * each was seen with until its last book goes, as the index does.
+     */
+    private static void acquire(Map<Text, int[]> texts, Book book) {
+        int day = (int) book.getPublishedDate().toEpochDay();
+        for (Text text : List.of(new Text(book.getTitle(), Kind.TITLE), new Text(book.getAuthor(), Kind.AUTHOR))) {
+            int[] counts = texts.computeIfAbsent(text, key -> new int[]{0, Integer.MIN_VALUE});
+            counts[0]++;
+            counts[1] = Math.max(counts[1], day);
+        }
+    }
+
+    private static void release(Map<Text, int[]> texts, Book book) {
+        for (Text text : List.of(new Text(book.getTitle(), Kind.TITLE), new Text(book.getAuthor(), Kind.AUTHOR))) {
+            if (--texts.get(text)[0] == 0) {
+                texts.remove(text);
+            }
+        }
+    }
+
+    /** Short texts over a small, mixed-case alphabet, so prefixes share long runs. */
+    private static String text(Random random) {
+        String alphabet = "aAbBcd ";
+        StringBuilder text = new StringBuilder().append(alphabet.charAt(random.nextInt(alphabet.length() - 1)));
+        for (int length = 2 + random.nextInt(5); text.length() < length; ) {
+            text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return text.toString();
+    }
+
+    private record Text(String text, Kind kind) {
+    }
+
+    private static Book book(long id, String title, String author, int year) {
+        return new Book(id, title, author, "isbn-" + id, LocalDate.of(year, 1, 1), 0L);
+    }
+}
@@ -0,0 +1,131 @@
+package com.rohianon.library.search;
+
+import com.rohianon.library.search.TermGrams.Expansion;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TermGramsTests {
+
+    @Test
+    void countsATranspositionAsOneEdit() {
+        int[][] rows = new int[3][16];
+
+        assertThat(TermGrams.distance("thunder", "thunedr", 2, rows)).isEqualTo(1);
+        assertThat(TermGrams.distance("thunder", "thunder", 2, rows)).isZero();
+        assertThat(TermGrams.distance("thunder", "plunder", 2, rows)).isEqualTo(2);
+        assertThat(TermGrams.distance("thunder", "wonder", 1, rows)).isEqualTo(2);
+    }
+
+    @Test
+    void distanceMatchesFullTable() {
+        Random random = new Random(7);
+        int[][] rows = new int[3][16];
+        for (int round = 0; round < 100_000; round++) {
+            String left = word(random, 1, 10);
+            String right = word(random, 1, 10);
+            int limit = random.nextInt(4);
+            assertThat(TermGrams.distance(left, right, limit, rows))
+                    .as("distance(%s, %s, %d)", left, right, limit)
+                    .isEqualTo(Math.min(osa(left, right), limit + 1));
+        }
+    }
+
+    /**
+     * Adds and removes words at random and checks each expansion against a scan of
+     * every word still indexed, so the trigram filter must not lose any word within
+     * the edit budget.
+     */
+    @Test
+    void expandMatchesBruteForceUnderRandomChanges() {
+        Random random = new Random(11);
+        TermGrams grams = new TermGrams();
+        TreeSet<String> indexed = new TreeSet<>();
+        for (int step = 0; step < 12_000; step++) {
+            String word = word(random, TermGrams.MIN_LENGTH, 11);
+            if (random.nextInt(3) == 0) {
+                String gone = indexed.ceiling(word);
+                if (gone != null) {
+                    grams.remove(gone);
+                    indexed.remove(gone);
+                }
+            } else {
+                grams.add(word);
+                indexed.add(word);
+            }
+            if (step % 500 == 0) {
+                for (int probe = 0; probe < 20; probe++) {
+                    String query = word(random, TermGrams.MIN_LENGTH, 11);
+                    assertThat(grams.expand(query))
+                            .as("expand(%s)", query)
+                            .isEqualTo(bruteForce(indexed, query));
+                }
+            }
+        }
+        assertThat(grams.size()).isEqualTo(indexed.size());
+    }
+
+    @Test
+    void ignoresShortWordsAndNumbers() {
+        TermGrams grams = new TermGrams();
+        grams.add("dune");
+        grams.add("1984");
+        grams.add("ice");
+
+        assertThat(grams.size()).isEqualTo(1);
+        assertThat(grams.expand("dnue")).containsExactly(new Expansion("dune", 0.75f));
+        assertThat(grams.expand("1985")).isEmpty();
+        assertThat(grams.expand("ic")).isEmpty();
+    }
+
+    private static List<Expansion> bruteForce(TreeSet<String> indexed, String query) {
+        int edits = TermGrams.maxEdits(query);
+        List<Expansion> expansions = new ArrayList<>();
+        for (String word : indexed) {
+            int distance = osa(query, word);
+            if (distance <= edits) {
+                expansions.add(new Expansion(word, 1f - (float) distance / Math.max(query.length(), word.length())));
+            }
+        }
+        expansions.sort(Comparator.comparingDouble(Expansion::similarity).reversed()
+                .thenComparing(Expansion::term));
+        return expansions.subList(0, Math.min(TermGrams.MAX_EXPANSIONS, expansions.size()));
+    }
+
+    /** Optimal string alignment distance over the full table. */
+    private static int osa(String left, String right) {
+        int[][] d = new int[left.length() + 1][right.length() + 1];
+        for (int i = 0; i <= left.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= right.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= left.length(); i++) {
+            for (int j = 1; j <= right.length(); j++) {
+                int cost = left.charAt(i - 1) == right.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+                if (i > 1 && j > 1 && left.charAt(i - 1) == right.charAt(j - 2)
+                        && left.charAt(i - 2) == right.charAt(j - 1)) {
+                    d[i][j] = Math.min(d[i][j], d[i - 2][j - 2] + 1);
+                }
+            }
+        }
+        return d[left.length()][right.length()];
+    }
+
+    /** Words over a four-letter alphabet, so many lie within an edit or two of each other. */
+    private static String word(Random random, int minLength, int maxLength) {
+        StringBuilder word = new StringBuilder();
+        for (int length = minLength + random.nextInt(maxLength - minLength + 1); word.length() < length; ) {
+            word.append("abcd".charAt(random.nextInt(4)));
+        }
+        return word.toString();
+    }
+}
@@ -0,0 +1,18 @@
+#!/usr/bin/env sh
+# Drives the platform-thread (default) and virtual-thread (profile "virtual")
+# modes with the same open-loop load; results go to target/load-<mode>.json.
+# Usage: ./compare-thread-modes.sh [rate] [seconds] [books]
+set -e
+cd "$(dirname "$0")"
+RATE=${1:-200}
+SECONDS_PER_RUN=${2:-30}
+BOOKS=${3:-20000}
+
+./mvnw -q package
+for MODE in platform virtual; do
+    PROFILE=""
+    [ "$MODE" = virtual ] && PROFILE="spring.profiles.active=virtual"
+    echo "== $MODE"
+    ./mvnw -q exec:exec@load \
+        -Dload.args="rate=$RATE duration=$SECONDS_PER_RUN books=$BOOKS output=target/load-$MODE.json $PROFILE"
+done
@@ -0,0 +1,90 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.LibraryApplication;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.service.BookBatchService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Starts the backend against a private in-memory H2 database and fills it with
+ * deterministic books, so every benchmark sees the same data for a given size.
+ */
+public final class BenchmarkData {
+
+    public static final String[] WORDS = {
+            "river", "garden", "night", "stone", "light", "winter", "harbor", "forest", "empire", "letters",
+            "silence", "voyage", "mirror", "orchard", "thunder", "glass", "shadow", "island", "compass", "ember"
+    };
+
+    private BenchmarkData() {
+    }
+
+    static ConfigurableApplicationContext startBackend(String... properties) {
+        return start(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * Like {@link #startBackend} but with the web server listening on a random port,
+     * available as {@code local.server.port}.
+     */
+    public static ConfigurableApplicationContext startServer(String... properties) {
+        String[] withPort = Arrays.copyOf(properties, properties.length + 1);
+        withPort[properties.length] = "server.port=0";
+        return start(WebApplicationType.SERVLET, withPort);
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String... properties) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID(),
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=warn"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(LibraryApplication.class)
+                .web(type)
+                .run(args.toArray(String[]::new));
+    }
+
+    public static void seed(ConfigurableApplicationContext context, int count) {
+        BookBatchService batchService = context.getBean(BookBatchService.class);
+        for (int from = 0; from < count; from += BookBatchService.MAX_BATCH_SIZE) {
+            List<Book> books = new ArrayList<>(BookBatchService.MAX_BATCH_SIZE);
+            for (int n = from; n < Math.min(from + BookBatchService.MAX_BATCH_SIZE, count); n++) {
+                books.add(book(n));
+            }
+            batchService.createBooks(books);
+        }
+    }
+
+    /**
+     * Book number {@code n}: one title word in {@link #WORDS}.length, one author in
+     * a thousand, and a valid ISBN-13 unique to {@code n}.
+     */
+    public static Book book(long n) {
+        Book book = new Book();
+        book.setTitle("Book " + n + " of the " + WORDS[(int) (n % WORDS.length)]);
+        book.setAuthor("Author " + (n % 1000));
+        book.setIsbn(isbn13(n));
+        book.setPublishedDate(LocalDate.of(1900 + (int) (n % 120), 1 + (int) (n % 12), 1 + (int) (n % 28)));
+        return book;
+    }
+
+    public static String isbn13(long n) {
+        String body = "978" + String.format("%09d", n);
+        int sum = 0;
+        for (int i = 0; i < body.length(); i++) {
+            sum += (body.charAt(i) - '0') * (i % 2 == 0 ? 1 : 3);
+        }
+        return body + (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,78 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.repository.BookRepository;
+import com.rohianon.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link BookService} end to end against H2: single-book create, lookup by id
+ * (served from the book cache once warm) and offset pages of 20.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class BookServiceBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"10000"})
+    public int books;
+
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+    private long[] ids;
+    private AtomicLong nextBook;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startBackend();
+        BenchmarkData.seed(context, books);
+        bookService = context.getBean(BookService.class);
+        ids = context.getBean(BookRepository.class).findAll().stream().mapToLong(Book::getId).toArray();
+        nextBook = new AtomicLong(books);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Book createBook() {
+        return bookService.createBook(BenchmarkData.book(nextBook.getAndIncrement()));
+    }
+
+    @Benchmark
+    public Book getBookById() {
+        return bookService.getBookById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public Page<BookResponse> getPage() {
+        return bookService.getAllBooks(ThreadLocalRandom.current().nextInt(books / PAGE_SIZE), PAGE_SIZE, BookField.ALL);
+    }
+}
@@ -0,0 +1,133 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.service.BookService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the body of a single-book response and of a page of 100 with the
+ * converters Spring MVC uses, with the encoded JSON cache on and off. Run with
+ * {@code -prof gc}; {@code gc.alloc.rate.norm} is the allocation per response. The
+ * bodies go to a stream that discards them, and the books are read once up front
+ * so only the encoding is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EncodedResponseBenchmark {
+
+    private static final int BOOKS = 1_000;
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"true", "false"})
+    public boolean encoded;
+
+    private ConfigurableApplicationContext context;
+    private List<HttpMessageConverter<?>> converters;
+    private final List<Book> books = new ArrayList<>();
+    private final List<Page<BookResponse>> pages = new ArrayList<>();
+    private final DiscardingMessage message = new DiscardingMessage();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startServer("library.cache.book-json.enabled=" + encoded);
+        BenchmarkData.seed(context, BOOKS);
+        converters = context.getBean(RequestMappingHandlerAdapter.class).getMessageConverters();
+        BookService bookService = context.getBean(BookService.class);
+        for (int page = 0; page < BOOKS / PAGE_SIZE; page++) {
+            Page<BookResponse> books = bookService.getAllBooks(page, PAGE_SIZE, BookField.ALL);
+            pages.add(books);
+            books.forEach(book -> this.books.add(bookService.getBookById(book.id())));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public long writeBook() throws IOException {
+        return write(books.get(ThreadLocalRandom.current().nextInt(books.size())));
+    }
+
+    @Benchmark
+    public long writePage() throws IOException {
+        return write(pages.get(ThreadLocalRandom.current().nextInt(pages.size())));
+    }
+
+    /** Picks the first converter that writes the body as JSON, as content negotiation does. */
+    @SuppressWarnings("unchecked")
+    private long write(Object body) throws IOException {
+        message.reset();
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter.canWrite(body.getClass(), MediaType.APPLICATION_JSON)) {
+                ((HttpMessageConverter<Object>) converter).write(body, MediaType.APPLICATION_JSON, message);
+                return message.written;
+            }
+        }
+        throw new IllegalStateException("No JSON converter for " + body.getClass());
+    }
+
+    private static final class DiscardingMessage extends OutputStream implements HttpOutputMessage {
+
+        private final HttpHeaders headers = new HttpHeaders();
+        private long written;
+
+        void reset() {
+            headers.clear();
+            written = 0;
+        }
+
+        @Override
+        public OutputStream getBody() {
+            return this;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public void write(int b) {
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+        }
+    }
+}
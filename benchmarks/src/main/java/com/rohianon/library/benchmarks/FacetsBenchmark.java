@@ -0,0 +1,94 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.DTOs.Facets;
+import com.rohianon.library.index.BookFacets;
+import com.rohianon.library.search.BookSearchIndex;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Author and decade counts read from the maintained counters versus the
+ * {@code GROUP BY} queries they replace, and the cost of tallying them over the
+ * matches of a search (one book in {@link BenchmarkData#WORDS}.length).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacetsBenchmark {
+
+    @Param({"10000", "100000"})
+    public int books;
+
+    private ConfigurableApplicationContext context;
+    private BookFacets bookFacets;
+    private BookSearchIndex bookSearchIndex;
+    private EntityManagerFactory entityManagerFactory;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startBackend();
+        BenchmarkData.seed(context, books);
+        bookFacets = context.getBean(BookFacets.class);
+        bookSearchIndex = context.getBean(BookSearchIndex.class);
+        entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        // H2 would otherwise hand back the previous result of an identical query
+        // while the table is unchanged, which a live catalog never is.
+        context.getBean(JdbcTemplate.class).execute("SET OPTIMIZE_REUSE_RESULTS 0");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Facets counters() {
+        return bookFacets.facets(10);
+    }
+
+    @Benchmark
+    public List<?> groupBy() {
+        try (EntityManager entityManager = entityManagerFactory.createEntityManager()) {
+            List<Object[]> authors = entityManager.createQuery(
+                            "select b.author, count(b) from Book b group by b.author order by count(b) desc, b.author",
+                            Object[].class)
+                    .setMaxResults(10)
+                    .getResultList();
+            List<Object[]> decades = entityManager.createQuery(
+                            "select extract(year from b.publishedDate) / 10, count(b) from Book b"
+                                    + " group by extract(year from b.publishedDate) / 10"
+                                    + " order by extract(year from b.publishedDate) / 10",
+                            Object[].class)
+                    .getResultList();
+            return List.of(authors, decades);
+        }
+    }
+
+    @Benchmark
+    public Facets searchTally() {
+        BookFacets.Tally tally = bookFacets.tally();
+        bookSearchIndex.search(BenchmarkData.WORDS[0], 0, 10, tally::add);
+        return tally.facets(10);
+    }
+}
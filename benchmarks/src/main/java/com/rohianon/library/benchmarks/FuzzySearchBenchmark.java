@@ -0,0 +1,89 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.search.BookSearchIndex;
+import com.rohianon.library.search.SearchResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fuzzy and exact queries on {@link BookSearchIndex}, built outside Spring from
+ * {@link BenchmarkData#book} titles. Authors get one of 8,000 made-up surnames,
+ * so the fuzzy words have a realistic vocabulary to be told apart from.
+ * "thunedr" is a typo for a title word carried by one book in twenty, and
+ * "tharkeinven" for a surname carried by one in 8,000. The surname also lies
+ * within two edits of several others, so the fuzzy queries match more books
+ * than the exact "thunder tharkienven" they are compared with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class FuzzySearchBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "tol", "kien", "mar", "ven", "dor", "al", "bri", "cas", "eth", "lin",
+            "mor", "quil", "ran", "sel", "thar", "vin", "wen", "ost", "hel", "gard"
+    };
+    private static final String[] GIVEN_NAMES = {
+            "Ada", "Ben", "Cora", "Dev", "Esme", "Finn", "Gus", "Hana", "Ivo", "June"
+    };
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    @Param({"tharkeinven", "thunedr tharkeinven", "thunedr"})
+    public String query;
+
+    private BookSearchIndex index;
+    private String exactQuery;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new BookSearchIndex();
+        for (int n = 0; n < books; n++) {
+            index.add(book(n));
+        }
+        exactQuery = query.replace("thunedr", "thunder").replace("tharkeinven", "tharkienven");
+        System.out.printf("%n%d books: %d terms, %d fuzzy; \"%s\" matches %d, \"%s\" matches %d%n",
+                books, index.termCount(), index.fuzzyTermCount(),
+                query, index.fuzzySearch(query, 0, 10).total(),
+                exactQuery, index.search(exactQuery, 0, 10).total());
+    }
+
+    @Benchmark
+    public SearchResult fuzzy() {
+        return index.fuzzySearch(query, 0, 10);
+    }
+
+    @Benchmark
+    public SearchResult exact() {
+        return index.search(exactQuery, 0, 10);
+    }
+
+    private static Book book(long n) {
+        Book book = BenchmarkData.book(n);
+        book.setId(n + 1);
+        book.setAuthor(GIVEN_NAMES[(int) (n % GIVEN_NAMES.length)] + " " + surname((int) (n % 8000)));
+        return book;
+    }
+
+    private static String surname(int k) {
+        String name = SYLLABLES[k % 20] + SYLLABLES[k / 20 % 20] + SYLLABLES[k / 400 % 20];
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
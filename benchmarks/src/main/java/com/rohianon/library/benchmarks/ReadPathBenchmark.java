@@ -0,0 +1,87 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.DTOs.BookField;
+import com.rohianon.library.DTOs.BookResponse;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One offset page out of 100k books, read as managed entities versus as
+ * {@link BookResponse} projections with every field and with only title and
+ * author. Each read runs in its own read-only transaction, as it would behind the
+ * controller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class ReadPathBenchmark {
+
+    private static final int BOOKS = 100_000;
+    private static final Set<BookField> TITLE_AUTHOR = EnumSet.of(BookField.TITLE, BookField.AUTHOR);
+
+    @Param({"100", "1000"})
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startBackend();
+        BenchmarkData.seed(context, BOOKS);
+        bookRepository = context.getBean(BookRepository.class);
+        readOnly = new TransactionTemplate(context.getBean(TransactionTemplate.class).getTransactionManager());
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> entities() {
+        return readOnly.execute(status -> bookRepository.findAll(randomPage()).getContent());
+    }
+
+    @Benchmark
+    public List<BookResponse> projection() {
+        return readOnly.execute(status -> bookRepository.findResponses(BookField.ALL, randomPage()).getContent());
+    }
+
+    @Benchmark
+    public List<BookResponse> projectionTitleAuthor() {
+        return readOnly.execute(status -> bookRepository.findResponses(TITLE_AUTHOR, randomPage()).getContent());
+    }
+
+    private PageRequest randomPage() {
+        return PageRequest.of(ThreadLocalRandom.current().nextInt(BOOKS / pageSize), pageSize, Sort.by("id"));
+    }
+}
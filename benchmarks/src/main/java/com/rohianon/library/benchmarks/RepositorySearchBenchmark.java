@@ -0,0 +1,80 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.repository.BookRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link BookRepository} search finders as the table grows. Title queries
+ * match one book in {@link BenchmarkData#WORDS}.length and author queries about
+ * one in a hundred, so result sizes scale with the table as they would in use.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Fork(1)
+public class RepositorySearchBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int books;
+
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkData.startBackend();
+        BenchmarkData.seed(context, books);
+        bookRepository = context.getBean(BookRepository.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Book> findByTitle() {
+        return bookRepository.findByTitleContainingIgnoreCase(randomWord());
+    }
+
+    @Benchmark
+    public List<Book> findByAuthor() {
+        return bookRepository.findByAuthorContainingIgnoreCase("author " + ThreadLocalRandom.current().nextInt(100));
+    }
+
+    @Benchmark
+    public List<Book> findByTitleOrAuthor() {
+        String word = randomWord();
+        return bookRepository.findByTitleContainingIgnoreCaseOrAuthorContainingIgnoreCase(word, word);
+    }
+
+    @Benchmark
+    public Optional<Book> findByIsbn() {
+        return bookRepository.findByIsbn(BenchmarkData.isbn13(ThreadLocalRandom.current().nextInt(books)));
+    }
+
+    private static String randomWord() {
+        return BenchmarkData.WORDS[ThreadLocalRandom.current().nextInt(BenchmarkData.WORDS.length)];
+    }
+}
@@ -0,0 +1,84 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.entity.Book;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import tools.jackson.databind.ObjectMapper;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson encoding of the response bodies the API returns most: a single
+ * {@link Book} and a {@link Page} of books, plus decoding a request body.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+    private Book book;
+    private byte[] bookJson;
+
+    @Setup
+    public void setUp() {
+        book = BenchmarkData.book(42);
+        book.setId(42L);
+        book.setVersion(3L);
+        bookJson = objectMapper.writeValueAsBytes(book);
+    }
+
+    @State(Scope.Benchmark)
+    public static class PageState {
+
+        @Param({"10", "100", "1000"})
+        public int pageSize;
+
+        private Page<Book> page;
+
+        @Setup
+        public void setUp() {
+            List<Book> books = new ArrayList<>(pageSize);
+            for (int n = 0; n < pageSize; n++) {
+                Book book = BenchmarkData.book(n);
+                book.setId(n + 1L);
+                book.setVersion(0L);
+                books.add(book);
+            }
+            page = new PageImpl<>(books, PageRequest.of(0, pageSize), 100_000);
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeBook() {
+        return objectMapper.writeValueAsBytes(book);
+    }
+
+    @Benchmark
+    public Book deserializeBook() {
+        return objectMapper.readValue(bookJson, Book.class);
+    }
+
+    @Benchmark
+    public byte[] serializePage(PageState state) {
+        return objectMapper.writeValueAsBytes(state.page);
+    }
+}
@@ -0,0 +1,80 @@
+package com.rohianon.library.benchmarks;
+
+import com.rohianon.library.DTOs.Suggestion;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.search.SuggestIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Type-ahead lookups on {@link SuggestIndex}, built outside Spring from
+ * {@link BenchmarkData#book} rows. Every title starts with "Book", so
+ * {@code b} matches the whole catalog, {@code book 12} about one title in a
+ * hundred and {@code author 4} one author in ten. Setup prints the heap the
+ * index holds.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class SuggestBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int books;
+
+    @Param({"b", "book 12", "author 4"})
+    public String prefix;
+
+    private SuggestIndex index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long before = memory.getHeapMemoryUsage().getUsed();
+        index = new SuggestIndex();
+        for (int n = 0; n < books; n++) {
+            index.add(book(n));
+        }
+        System.gc();
+        long used = memory.getHeapMemoryUsage().getUsed() - before;
+        System.out.printf("%n%d books: %d suggestions in %d blocks, %d MiB (%.0f bytes per book)%n",
+                books, index.size(), index.blockCount(), used >> 20, (double) used / books);
+    }
+
+    @Benchmark
+    public List<Suggestion> suggest() {
+        return index.suggest(prefix, 10);
+    }
+
+    @Benchmark
+    public void retitle() {
+        Book book = book(ThreadLocalRandom.current().nextInt(books));
+        book.setTitle(book.getTitle() + " (revised)");
+        index.put(book);
+    }
+
+    private static Book book(long n) {
+        Book book = BenchmarkData.book(n);
+        book.setId(n + 1);
+        return book;
+    }
+}
@@ -0,0 +1,88 @@
+package com.rohianon.library.benchmarks;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.rohianon.library.DTOs.BookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.dataformat.cbor.CBORMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding a page of books as served in JSON and in CBOR. The bodies are fetched
+ * once from a running backend, so they are exactly what a client receives, and
+ * their sizes are printed during setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"10", "50", "1000"})
+    public int pageSize;
+
+    private JsonMapper jsonMapper;
+    private CBORMapper cborMapper;
+    private byte[] json;
+    private byte[] cbor;
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record PageView(List<BookResponse> content, long totalElements, int totalPages, int number, int size) {
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        try (ConfigurableApplicationContext context = BenchmarkData.startServer()) {
+            BenchmarkData.seed(context, pageSize);
+            jsonMapper = context.getBean(JsonMapper.class);
+            cborMapper = context.getBean(CBORMapper.class);
+            String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/books?page=0&size=" + pageSize;
+            HttpClient client = HttpClient.newHttpClient();
+            json = fetch(client, url, "application/json");
+            cbor = fetch(client, url, "application/cbor");
+        }
+        System.out.printf("%n%d books: JSON %d bytes, CBOR %d bytes (%.0f%%)%n",
+                pageSize, json.length, cbor.length, 100.0 * cbor.length / json.length);
+    }
+
+    @Benchmark
+    public PageView decodeJson() {
+        return jsonMapper.readValue(json, PageView.class);
+    }
+
+    @Benchmark
+    public PageView decodeCbor() {
+        return cborMapper.readValue(cbor, PageView.class);
+    }
+
+    private static byte[] fetch(HttpClient client, String url, String accept) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url)).header("Accept", accept).build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + url + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,256 @@
+package com.rohianon.library.benchmarks.load;
+
+import com.rohianon.library.benchmarks.BenchmarkData;
+import com.rohianon.library.entity.Book;
+import com.rohianon.library.repository.BookRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop HTTP load against an in-process backend. Requests are sent on a fixed
+ * schedule at the target rate whether or not earlier ones have returned, and each
+ * latency is measured from the time the request was <em>scheduled</em> to go out.
+ * A stall therefore shows up in every request it delayed, not just the one that
+ * was in flight, which is the coordinated-omission correction. Service time
+ * (measured from the actual send) is reported alongside for comparison.
+ *
+ * <p>Options, all {@code --name=value}: {@code rate} (requests/s, default 200),
+ * {@code duration} and {@code warmup} (seconds, default 30 and 10), {@code books}
+ * to seed (default 20000), {@code mix} (default
+ * {@code get=50,page=15,cursor=10,search=10,isbn=5,create=5,patch=5}) and
+ * {@code output} (default {@code target/load-result.json}). Any other option is
+ * passed to the backend, e.g. {@code --spring.profiles.active=virtual}.
+ */
+public class LoadGenerator {
+
+    private static final String DEFAULT_MIX = "get=50,page=15,cursor=10,search=10,isbn=5,create=5,patch=5";
+
+    private final HttpClient http = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+    private final Operation.Target target;
+    private final Operation[] operations;
+    private final double[] cumulativeWeights;
+
+    LoadGenerator(Operation.Target target, Map<Operation, Integer> mix) {
+        this.target = target;
+        this.operations = mix.keySet().toArray(Operation[]::new);
+        this.cumulativeWeights = new double[operations.length];
+        double total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double running = 0;
+        for (int i = 0; i < operations.length; i++) {
+            running += mix.get(operations[i]) / total;
+            cumulativeWeights[i] = running;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("rate", "200");
+        options.put("duration", "30");
+        options.put("warmup", "10");
+        options.put("books", "20000");
+        options.put("mix", DEFAULT_MIX);
+        options.put("output", "target/load-result.json");
+        List<String> backendProperties = new ArrayList<>();
+        for (String arg : args) {
+            String option = arg.startsWith("--") ? arg.substring(2) : arg;
+            String name = option.contains("=") ? option.substring(0, option.indexOf('=')) : option;
+            if (options.containsKey(name)) {
+                options.put(name, option.substring(name.length() + 1));
+            } else {
+                backendProperties.add(option);
+            }
+        }
+        int rate = Integer.parseInt(options.get("rate"));
+        int duration = Integer.parseInt(options.get("duration"));
+        int warmup = Integer.parseInt(options.get("warmup"));
+        int books = Integer.parseInt(options.get("books"));
+        Map<Operation, Integer> mix = parseMix(options.get("mix"));
+
+        try (ConfigurableApplicationContext context = BenchmarkData.startServer(backendProperties.toArray(String[]::new))) {
+            BenchmarkData.seed(context, books);
+            long[] ids = context.getBean(BookRepository.class).findAll().stream().mapToLong(Book::getId).toArray();
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            LoadGenerator generator = new LoadGenerator(new Operation.Target(baseUrl, ids, new AtomicLong(books)), mix);
+
+            System.out.printf(Locale.ROOT, "Warming up for %ds at %d req/s%n", warmup, rate);
+            generator.run(rate, warmup);
+            System.out.printf(Locale.ROOT, "Measuring for %ds at %d req/s%n", duration, rate);
+            Map<Operation, EndpointStats> stats = generator.run(rate, duration);
+
+            Map<String, Object> report = report(options, backendProperties, stats, duration);
+            printReport(stats, duration);
+            Path output = Path.of(options.get("output"));
+            if (output.getParent() != null) {
+                Files.createDirectories(output.getParent());
+            }
+            JsonMapper.builder().build().writerWithDefaultPrettyPrinter().writeValue(output.toFile(), report);
+            System.out.println("Results written to " + output.toAbsolutePath());
+        }
+    }
+
+    Map<Operation, EndpointStats> run(int rate, int seconds) throws InterruptedException {
+        Map<Operation, EndpointStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new EndpointStats());
+        }
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = (long) rate * seconds;
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long scheduled = start + i * interval;
+                long wait;
+                while ((wait = scheduled - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                Operation operation = pick();
+                executor.execute(() -> send(operation, scheduled, stats.get(operation)));
+            }
+        }
+        return stats;
+    }
+
+    private void send(Operation operation, long scheduled, EndpointStats stats) {
+        long sent = System.nanoTime();
+        boolean failed;
+        try {
+            int status = http.send(operation.request(target).build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+            failed = status >= 400;
+        } catch (Exception e) {
+            failed = true;
+        }
+        long done = System.nanoTime();
+        stats.record((done - scheduled) / 1000, (done - sent) / 1000, failed);
+    }
+
+    private Operation pick() {
+        double value = ThreadLocalRandom.current().nextDouble();
+        for (int i = 0; i < operations.length - 1; i++) {
+            if (value < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("mix entries look like get=50, got '" + entry + "'");
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromName(parts[0]), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("mix must give at least one operation a positive weight");
+        }
+        return weights;
+    }
+
+    private static void printReport(Map<Operation, EndpointStats> stats, int seconds) {
+        System.out.printf(Locale.ROOT, "%n%-30s %9s %7s %9s %9s %9s %9s %9s %12s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms", "svc p99 ms");
+        EndpointStats total = new EndpointStats();
+        stats.forEach((operation, endpoint) -> {
+            printRow(operation.label(), endpoint, seconds);
+            total.add(endpoint);
+        });
+        printRow("all", total, seconds);
+    }
+
+    private static void printRow(String label, EndpointStats stats, int seconds) {
+        long requests = stats.latency.count();
+        System.out.printf(Locale.ROOT, "%-30s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %12.2f%n",
+                label, requests, stats.errors.get(), requests / (double) seconds,
+                stats.latency.percentile(0.50) / 1000.0, stats.latency.percentile(0.99) / 1000.0,
+                stats.latency.percentile(0.999) / 1000.0, stats.latency.max() / 1000.0,
+                stats.serviceTime.percentile(0.99) / 1000.0);
+    }
+
+    private static Map<String, Object> report(Map<String, String> options, List<String> backendProperties,
+                                              Map<Operation, EndpointStats> stats, int seconds) {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("options", options);
+        report.put("backendProperties", backendProperties);
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        EndpointStats total = new EndpointStats();
+        stats.forEach((operation, endpoint) -> {
+            endpoints.add(endpoint.toReport(operation.label(), seconds));
+            total.add(endpoint);
+        });
+        endpoints.add(total.toReport("all", seconds));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    /**
+     * Latency measured from the scheduled send time, service time measured from the
+     * actual send, both in microseconds.
+     */
+    static final class EndpointStats {
+
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+
+        void record(long latencyMicros, long serviceMicros, boolean failed) {
+            latency.record(latencyMicros);
+            serviceTime.record(serviceMicros);
+            if (failed) {
+                errors.incrementAndGet();
+            }
+        }
+
+        void add(EndpointStats other) {
+            latency.add(other.latency);
+            serviceTime.add(other.serviceTime);
+            errors.addAndGet(other.errors.get());
+        }
+
+        Map<String, Object> toReport(String label, int seconds) {
+            Map<String, Object> endpoint = new LinkedHashMap<>();
+            endpoint.put("endpoint", label);
+            endpoint.put("requests", latency.count());
+            endpoint.put("errors", errors.get());
+            endpoint.put("throughput", latency.count() / (double) seconds);
+            endpoint.put("latencyMicros", percentiles(latency));
+            endpoint.put("serviceTimeMicros", percentiles(serviceTime));
+            return endpoint;
+        }
+
+        private static Map<String, Long> percentiles(LatencyHistogram histogram) {
+            Map<String, Long> percentiles = new LinkedHashMap<>();
+            percentiles.put("p50", histogram.percentile(0.50));
+            percentiles.put("p90", histogram.percentile(0.90));
+            percentiles.put("p99", histogram.percentile(0.99));
+            percentiles.put("p999", histogram.percentile(0.999));
+            percentiles.put("max", histogram.max());
+            return percentiles;
+        }
+    }
+}
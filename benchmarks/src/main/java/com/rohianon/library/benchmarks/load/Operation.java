@@ -0,0 +1,121 @@
+package com.rohianon.library.benchmarks.load;
+
+import com.rohianon.library.benchmarks.BenchmarkData;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code /api/books} calls the generator can mix. Reads pick a random seeded
+ * book; creates use fresh numbers past the seeded range so they never collide.
+ */
+enum Operation {
+
+    GET("GET /api/books/{id}") {
+        @Override
+        HttpRequest.Builder request(Target target) {
+            return get(target, "/api/books/" + target.randomId());
+        }
+    },
+    ISBN("GET /api/books/isbn/{isbn}") {
+        @Override
+        HttpRequest.Builder request(Target target) {
+            return get(target, "/api/books/isbn/" + BenchmarkData.isbn13(target.randomBook()));
+        }
+    },
+    PAGE("GET /api/books?page&size") {
+        @Override
+        HttpRequest.Builder request(Target target) {
+            int page = ThreadLocalRandom.current().nextInt(Math.max(1, target.books() / 20));
+            return get(target, "/api/books?page=" + page + "&size=20");
+        }
+    },
+    CURSOR("GET /api/books?limit&sort") {
+        @Override
+        HttpRequest.Builder request(Target target) {
+            return get(target, "/api/books?limit=20&sort=title");
+        }
+    },
+    SEARCH("GET /api/books/search?q") {
+        @Override
+        HttpRequest.Builder request(Target target) {
+            return get(target, "/api/books/search?q=" + randomWord() + "&size=20");
+        }
+    },
+    CREATE("POST /api/books") {
+        @Override
+        HttpRequest.Builder request(Target target) {
+            long n = target.nextNewBook().getAndIncrement();
+            String body = String.format(Locale.ROOT,
+                    "{\"title\":\"Load %d of the %s\",\"author\":\"Author %d\",\"isbn\":\"%s\",\"publishedDate\":\"2001-02-03\"}",
+                    n, randomWord(), n % 1000, BenchmarkData.isbn13(n));
+            return json(target, "/api/books").POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+    PATCH("PATCH /api/books/{id}") {
+        @Override
+        HttpRequest.Builder request(Target target) {
+            String body = "{\"title\":\"Revised edition of the " + randomWord() + "\"}";
+            return json(target, "/api/books/" + target.randomId())
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(body));
+        }
+    };
+
+    private final String label;
+
+    Operation(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    abstract HttpRequest.Builder request(Target target);
+
+    static Operation fromName(String name) {
+        return valueOf(name.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static HttpRequest.Builder get(Target target, String path) {
+        return HttpRequest.newBuilder(target.uri(path)).timeout(Target.REQUEST_TIMEOUT).GET();
+    }
+
+    private static HttpRequest.Builder json(Target target, String path) {
+        return HttpRequest.newBuilder(target.uri(path))
+                .timeout(Target.REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json");
+    }
+
+    private static String randomWord() {
+        return BenchmarkData.WORDS[ThreadLocalRandom.current().nextInt(BenchmarkData.WORDS.length)];
+    }
+
+    /**
+     * The running backend and the ids of the books seeded into it.
+     */
+    record Target(String baseUrl, long[] ids, AtomicLong nextNewBook) {
+
+        static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+        URI uri(String path) {
+            return URI.create(baseUrl + path);
+        }
+
+        int books() {
+            return ids.length;
+        }
+
+        long randomId() {
+            return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        }
+
+        int randomBook() {
+            return ThreadLocalRandom.current().nextInt(ids.length);
+        }
+    }
+}
@@ -7,9 +7,11 @@ import javafx.stage.Stage;
 
 public class LibraryApp extends Application {
 
+    private MainView mainView;
+
     @Override
     public void start(Stage primaryStage) {
-        MainView mainView = new MainView();
+        mainView = new MainView();
         Scene scene = new Scene(mainView, 900, 600);
 
         primaryStage.setTitle("Library Management System");
@@ -17,6 +19,13 @@ public class LibraryApp extends Application {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() {
+        if (mainView != null) {
+            mainView.close();
+        }
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
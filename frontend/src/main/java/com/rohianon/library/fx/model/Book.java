@@ -1,8 +1,11 @@
 package com.rohianon.library.fx.model;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import java.time.LocalDate;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class Book {
     private Long id;
     private String title;
@@ -12,6 +15,9 @@ public class Book {
     @JsonFormat(pattern = "yyyy-MM-dd")
     private LocalDate publishedDate;
 
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long version;
+
     public Book() {
     }
 
@@ -62,4 +68,12 @@ public class Book {
     public void setPublishedDate(LocalDate publishedDate) {
         this.publishedDate = publishedDate;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
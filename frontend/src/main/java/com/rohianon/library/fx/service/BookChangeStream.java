@@ -0,0 +1,148 @@
+package com.rohianon.library.fx.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rohianon.library.fx.model.BookChange;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Follows the server's change feed on a background thread. After a dropped
+ * connection it reconnects with the id of the last event it saw, so only the
+ * changes it missed are sent again; when the server cannot replay them it sends
+ * a reset and the listener reloads instead.
+ *
+ * <p>Callbacks run on the stream's thread, not on the JavaFX application thread.
+ */
+public class BookChangeStream implements AutoCloseable {
+    private static final long DEFAULT_RETRY_MILLIS = 2000;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final URI uri;
+    private final Runnable onReset;
+    private final Consumer<BookChange> onChange;
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile Stream<String> current;
+    private String lastEventId;
+    private long retryMillis = DEFAULT_RETRY_MILLIS;
+
+    BookChangeStream(HttpClient httpClient, ObjectMapper objectMapper, URI uri,
+                     Runnable onReset, Consumer<BookChange> onChange) {
+        this.httpClient = httpClient;
+        this.objectMapper = objectMapper;
+        this.uri = uri;
+        this.onReset = onReset;
+        this.onChange = onChange;
+        this.thread = Thread.ofPlatform().daemon().name("book-changes").unstarted(this::run);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        Stream<String> lines = current;
+        if (lines != null) {
+            lines.close();
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                follow();
+            } catch (IOException | RuntimeException e) {
+                // Dropped or refused; try again after the retry delay.
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                Thread.sleep(retryMillis);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void follow() throws IOException, InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Accept", "text/event-stream")
+                .GET();
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+
+        HttpResponse<Stream<String>> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofLines());
+
+        try (Stream<String> lines = response.body()) {
+            if (response.statusCode() != 200) {
+                throw new IOException("Failed to follow changes: HTTP " + response.statusCode());
+            }
+            current = lines;
+            String id = null;
+            String event = null;
+            StringBuilder data = new StringBuilder();
+            Iterator<String> iterator = lines.iterator();
+            while (!closed && iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.isEmpty()) {
+                    dispatch(event, data.toString());
+                    if (id != null) {
+                        lastEventId = id;
+                    }
+                    id = null;
+                    event = null;
+                    data.setLength(0);
+                    continue;
+                }
+                if (line.startsWith(":")) {
+                    continue;
+                }
+                int colon = line.indexOf(':');
+                String field = colon < 0 ? line : line.substring(0, colon);
+                String value = colon < 0 ? "" : line.substring(colon + 1);
+                if (value.startsWith(" ")) {
+                    value = value.substring(1);
+                }
+                switch (field) {
+                    case "id" -> id = value;
+                    case "event" -> event = value;
+                    case "data" -> data.append(data.isEmpty() ? "" : "\n").append(value);
+                    case "retry" -> retryMillis = parseRetry(value);
+                    default -> {
+                    }
+                }
+            }
+        } finally {
+            current = null;
+        }
+    }
+
+    private void dispatch(String event, String data) throws IOException {
+        if ("reset".equals(event)) {
+            onReset.run();
+        } else if ("change".equals(event)) {
+            onChange.accept(objectMapper.readValue(data, BookChange.class));
+        }
+    }
+
+    private long parseRetry(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return retryMillis;
+        }
+    }
+}
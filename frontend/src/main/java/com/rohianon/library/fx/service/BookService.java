@@ -2,8 +2,10 @@ package com.rohianon.library.fx.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.rohianon.library.fx.model.Book;
+import com.rohianon.library.fx.model.BookChange;
 import com.rohianon.library.fx.model.PageResponse;
 
 import java.io.IOException;
@@ -13,15 +15,24 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 public class BookService {
     private static final String BASE_URL_PROPERTY = "library.api.baseUrl";
     private static final String PROPERTIES_FILE = "/application.properties";
+    private static final String CBOR = "application/cbor";
 
     private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
     private final String baseUrl;
+    private final Map<String, CachedPage> pageCache = new ConcurrentHashMap<>();
+
+    private record CachedPage(String etag, PageResponse<Book> page) {
+    }
 
     public BookService() {
         this(loadBaseUrl());
@@ -32,6 +43,8 @@ public class BookService {
         this.httpClient = HttpClient.newHttpClient();
         this.objectMapper = new ObjectMapper();
         this.objectMapper.registerModule(new JavaTimeModule());
+        this.cborMapper = new ObjectMapper(new CBORFactory());
+        this.cborMapper.registerModule(new JavaTimeModule());
     }
 
     private static String loadBaseUrl() {
@@ -67,31 +80,66 @@ public class BookService {
     public List<Book> getAllBooks() throws IOException, InterruptedException {
         HttpRequest request = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl))
+                .header("Accept", CBOR + ", application/json;q=0.9")
                 .GET()
                 .build();
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
 
         if (response.statusCode() != 200) {
             throw new IOException("Failed to fetch books: HTTP " + response.statusCode());
         }
 
-        return objectMapper.readValue(response.body(), new TypeReference<List<Book>>() {});
+        return mapperFor(response).readValue(response.body(), new TypeReference<List<Book>>() {});
     }
 
     public PageResponse<Book> getAllBooks(int page, int size) throws IOException, InterruptedException {
-        HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(baseUrl + "?page=" + page + "&size=" + size))
-                .GET()
-                .build();
+        String url = baseUrl + "?page=" + page + "&size=" + size;
+        CachedPage cached = pageCache.get(url);
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header("Accept", CBOR + ", application/json;q=0.9")
+                .GET();
+        if (cached != null) {
+            builder.header("If-None-Match", cached.etag());
+        }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<byte[]> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofByteArray());
 
+        if (response.statusCode() == 304 && cached != null) {
+            return cached.page();
+        }
         if (response.statusCode() != 200) {
             throw new IOException("Failed to fetch books: HTTP " + response.statusCode());
         }
 
-        return objectMapper.readValue(response.body(), new TypeReference<PageResponse<Book>>() {});
+        PageResponse<Book> result = mapperFor(response).readValue(response.body(), new TypeReference<PageResponse<Book>>() {});
+        response.headers().firstValue("ETag")
+                .ifPresentOrElse(etag -> pageCache.put(url, new CachedPage(etag, result)), () -> pageCache.remove(url));
+        return result;
+    }
+
+    /**
+     * List responses are requested as CBOR, which is about half the size of JSON;
+     * a server that only speaks JSON still works.
+     */
+    private ObjectMapper mapperFor(HttpResponse<?> response) {
+        boolean cbor = response.headers().firstValue("Content-Type")
+                .map(type -> type.startsWith(CBOR))
+                .orElse(false);
+        return cbor ? cborMapper : objectMapper;
+    }
+
+    /**
+     * Starts following the server's change feed. {@code onReset} is called when
+     * the client should reload what it shows, including once on connecting.
+     */
+    public BookChangeStream watchChanges(Runnable onReset, Consumer<BookChange> onChange) {
+        BookChangeStream stream = new BookChangeStream(httpClient, objectMapper, URI.create(baseUrl + "/changes"),
+                onReset, onChange);
+        stream.start();
+        return stream;
     }
 
     public Book createBook(Book book) throws IOException, InterruptedException {
@@ -115,14 +163,20 @@ public class BookService {
     public Book updateBook(Long id, Book book) throws IOException, InterruptedException {
         String json = objectMapper.writeValueAsString(book);
 
-        HttpRequest request = HttpRequest.newBuilder()
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
                 .uri(URI.create(baseUrl + "/" + id))
                 .header("Content-Type", "application/json")
-                .PUT(HttpRequest.BodyPublishers.ofString(json))
-                .build();
+                .PUT(HttpRequest.BodyPublishers.ofString(json));
+        if (book.getVersion() != null) {
+            // Only apply the update if nobody has changed the book since it was loaded.
+            builder.header("If-Match", "\"" + id + "." + book.getVersion() + "\"");
+        }
 
-        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = httpClient.send(builder.build(), HttpResponse.BodyHandlers.ofString());
 
+        if (response.statusCode() == 412) {
+            throw new IOException("The book was changed by someone else. Refresh and try again.");
+        }
         if (response.statusCode() != 200) {
             throw new IOException("Failed to update book: HTTP " + response.statusCode());
         }
@@ -1,8 +1,11 @@
 package com.rohianon.library.fx.view;
 
 import com.rohianon.library.fx.model.Book;
+import com.rohianon.library.fx.model.BookChange;
 import com.rohianon.library.fx.model.PageResponse;
+import com.rohianon.library.fx.service.BookChangeStream;
 import com.rohianon.library.fx.service.BookService;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
@@ -20,6 +23,7 @@ import java.util.Optional;
 public class MainView extends VBox {
 
     private final BookService bookService;
+    private final BookChangeStream changeStream;
     private final TableView<Book> tableView;
     private Long selectedBookId;
     private final TextField titleField;
@@ -155,6 +159,11 @@ public class MainView extends VBox {
         });
 
         getChildren().addAll(formBox, searchBox, buttonBox, tableView, paginationBox);
+
+        // Keep the table current with changes made by any client
+        changeStream = bookService.watchChanges(
+                () -> Platform.runLater(this::refreshTable),
+                change -> Platform.runLater(() -> applyChange(change)));
     }
 
     private void handleAdd() {
@@ -171,8 +180,7 @@ public class MainView extends VBox {
         Book book = new Book(null, title, author, isbn, publishedDate);
 
         try {
-            bookService.createBook(book);
-            refreshTable();
+            showBook(bookService.createBook(book), true);
             clearForm();
         } catch (Exception e) {
             showError("Error", "Failed to add book: " + e.getMessage());
@@ -196,10 +204,13 @@ public class MainView extends VBox {
         }
 
         Book book = new Book(selectedBookId, title, author, isbn, publishedDate);
+        Book selected = tableView.getSelectionModel().getSelectedItem();
+        if (selected != null && selectedBookId.equals(selected.getId())) {
+            book.setVersion(selected.getVersion());
+        }
 
         try {
-            bookService.updateBook(selectedBookId, book);
-            refreshTable();
+            showBook(bookService.updateBook(selectedBookId, book), false);
             clearForm();
             tableView.getSelectionModel().clearSelection();
         } catch (Exception e) {
@@ -221,8 +232,9 @@ public class MainView extends VBox {
         Optional<ButtonType> result = confirmDialog.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
             try {
-                bookService.deleteBook(selectedBookId);
-                refreshTable();
+                Long deletedId = selectedBookId;
+                bookService.deleteBook(deletedId);
+                removeBook(deletedId);
                 clearForm();
                 tableView.getSelectionModel().clearSelection();
             } catch (Exception e) {
@@ -268,6 +280,48 @@ public class MainView extends VBox {
         }
     }
 
+    private void applyChange(BookChange change) {
+        switch (change.getType()) {
+            case CREATED -> showBook(change.getBook(), true);
+            case UPDATED -> showBook(change.getBook(), false);
+            case DELETED -> removeBook(change.getId());
+        }
+    }
+
+    /**
+     * Puts a created or updated book on the current page if it belongs there. Pages
+     * are ordered by id, so a new book can only land at the end of the last page.
+     * Copies older than the one shown are ignored.
+     */
+    private void showBook(Book book, boolean created) {
+        for (int i = 0; i < sourceData.size(); i++) {
+            Book shown = sourceData.get(i);
+            if (shown.getId().equals(book.getId())) {
+                if (shown.getVersion() == null || book.getVersion() == null || book.getVersion() >= shown.getVersion()) {
+                    sourceData.set(i, book);
+                }
+                return;
+            }
+        }
+        if (!created || currentPage < totalPages - 1) {
+            return;
+        }
+        if (sourceData.size() < pageSizeBox.getValue()) {
+            sourceData.add(book);
+        } else {
+            totalPages = currentPage + 2;
+            updatePaginationControls();
+        }
+    }
+
+    private void removeBook(Long id) {
+        sourceData.removeIf(book -> book.getId().equals(id));
+    }
+
+    public void close() {
+        changeStream.close();
+    }
+
     private void updatePaginationControls() {
         pageInfoLabel.setText("Page " + (currentPage + 1) + " of " + totalPages);
         prevPageButton.setDisable(currentPage <= 0);
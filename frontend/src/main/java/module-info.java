@@ -4,6 +4,7 @@ module com.rohianon.library.fx {
     requires java.net.http;
     requires com.fasterxml.jackson.databind;
     requires com.fasterxml.jackson.datatype.jsr310;
+    requires com.fasterxml.jackson.dataformat.cbor;
 
     opens com.rohianon.library.fx to javafx.fxml;
     opens com.rohianon.library.fx.model to com.fasterxml.jackson.databind;